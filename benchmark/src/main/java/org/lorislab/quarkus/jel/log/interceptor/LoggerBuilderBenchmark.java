@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The benchmark of the custom mapping dispatch.
+ * <p>
+ * The {@code classValue} benchmark is the mapping resolved once per class by the {@link LoggerBuilderService}
+ * and the {@code map} benchmark is the lookup of the exact class in the map of the mapping functions.
+ * <pre>
+ * mvn -Pbenchmark install
+ * java -jar benchmark/target/benchmarks.jar LoggerBuilderBenchmark
+ * </pre>
+ *
+ * @author Andrej Petras
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBuilderBenchmark {
+
+    /**
+     * The parameter type, the exact class or the assignable class mapping.
+     */
+    @Param({"exact", "assignable"})
+    public String type;
+
+    /**
+     * The logger builder with the mapping functions of the generated implementation.
+     */
+    private final Builder builder = new Builder();
+
+    /**
+     * The logger builder service.
+     */
+    private final LoggerBuilderService service = new LoggerBuilderService();
+
+    /**
+     * The map of the mapping functions by the class.
+     */
+    private final Map<Class<?>, Function<Object, String>> classes = new HashMap<>();
+
+    /**
+     * The parameter.
+     */
+    private Object parameter;
+
+    /**
+     * Setup the benchmark.
+     */
+    @Setup
+    public void setup() {
+        service.loggerBuilder = builder;
+        service.init();
+        classes.putAll(builder.getClasses());
+        parameter = "exact".equals(type) ? new Order(1) : new Customer(2);
+        if (!"exact".equals(type)) {
+            classes.put(Customer.class, Builder::entity);
+        }
+    }
+
+    /**
+     * Formats the parameter with the mapping resolved once per class.
+     *
+     * @return the formatted parameter.
+     */
+    @Benchmark
+    public String classValue() {
+        return service.getParameterValue(parameter);
+    }
+
+    /**
+     * Formats the parameter with the lookup in the map.
+     *
+     * @return the formatted parameter.
+     */
+    @Benchmark
+    public String map() {
+        return classes.get(parameter.getClass()).apply(parameter);
+    }
+
+    /**
+     * The entity of the assignable mapping.
+     */
+    interface Entity {
+
+        /**
+         * Gets the id.
+         *
+         * @return the id.
+         */
+        long getId();
+    }
+
+    /**
+     * The parameter of the exact class mapping.
+     */
+    static final class Order {
+
+        /**
+         * The id.
+         */
+        private final long id;
+
+        /**
+         * The default constructor.
+         *
+         * @param id the id.
+         */
+        Order(long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * The parameter of the assignable class mapping.
+     */
+    static final class Customer implements Entity {
+
+        /**
+         * The id.
+         */
+        private final long id;
+
+        /**
+         * The default constructor.
+         *
+         * @param id the id.
+         */
+        Customer(long id) {
+            this.id = id;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public long getId() {
+            return id;
+        }
+    }
+
+    /**
+     * The logger builder with the maps of the generated implementation.
+     */
+    static final class Builder implements LoggerBuilder {
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public Map<Class<?>, Function<Object, String>> getClasses() {
+            Map<Class<?>, Function<Object, String>> result = new LinkedHashMap<>();
+            result.put(Order.class, Builder::order);
+            return result;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public Map<Class<?>, Function<Object, String>> getAssignableFrom() {
+            Map<Class<?>, Function<Object, String>> result = new LinkedHashMap<>();
+            result.put(Entity.class, Builder::entity);
+            return result;
+        }
+
+        /**
+         * Mapping method for the order.
+         *
+         * @param parameter to map.
+         * @return the corresponding string result for the log.
+         */
+        static String order(Object parameter) {
+            return "Order:" + ((Order) parameter).id;
+        }
+
+        /**
+         * Mapping method for the entity.
+         *
+         * @param parameter to map.
+         * @return the corresponding string result for the log.
+         */
+        static String entity(Object parameter) {
+            return "Entity:" + ((Entity) parameter).getId();
+        }
+    }
+}
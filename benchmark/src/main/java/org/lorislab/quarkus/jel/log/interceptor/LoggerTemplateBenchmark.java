@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the precompiled {@link LoggerTemplate} against the {@link MessageFormat}.
+ * <p>
+ * The {@code messageFormat} benchmark is the previous rendering of the log messages,
+ * the {@code messageFormatCached} benchmark reuses the parsed format for the comparison
+ * with the precompiled template.
+ * <pre>
+ * mvn -Pbenchmark install
+ * java -jar benchmark/target/benchmarks.jar LoggerTemplateBenchmark
+ * </pre>
+ *
+ * @author Andrej Petras
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerTemplateBenchmark {
+
+    /**
+     * The message pattern of the succeed record.
+     */
+    private static final String PATTERN = "{0}({1}):{2} [{3}s] succeed.";
+
+    /**
+     * The precompiled template.
+     */
+    private final LoggerTemplate template = LoggerTemplate.compile(PATTERN);
+
+    /**
+     * The parsed message format. The instance is not thread-safe, the benchmark has one thread.
+     */
+    private final MessageFormat format = new MessageFormat(PATTERN);
+
+    /**
+     * The message arguments.
+     */
+    private final Object[] arguments = {"findOrder", "12345,ACTIVE", "Order[id=12345]", "0.012"};
+
+    /**
+     * Renders the message with the precompiled template.
+     *
+     * @return the message.
+     */
+    @Benchmark
+    public String template() {
+        return template.format(arguments);
+    }
+
+    /**
+     * Renders the message with the {@link MessageFormat#format(String, Object...)}.
+     *
+     * @return the message.
+     */
+    @Benchmark
+    public String messageFormat() {
+        return MessageFormat.format(PATTERN, arguments);
+    }
+
+    /**
+     * Renders the message with the parsed {@link MessageFormat}.
+     *
+     * @return the message.
+     */
+    @Benchmark
+    public String messageFormatCached() {
+        return format.format(arguments);
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.decoder;
+
+import org.lorislab.quarkus.jel.log.interceptor.LatencyHistogram;
+import org.lorislab.quarkus.jel.log.interceptor.LoggerBinaryFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The decoder of the binary invocation log files.
+ * <p>
+ * The invocation records are converted to the text lines or to the latency report of the names.
+ * <pre>
+ * java -jar jel-quarkus-log-decoder.jar [--report] [--unit=s|ms|us|ns] &lt;file|directory&gt;...
+ * </pre>
+ * The durations are written in the time unit of the {@code --unit} option, by default in the seconds.
+ * The not finished records and the empty regions are skipped, the truncated file is decoded up to the last
+ * complete record.
+ *
+ * @author Andrej Petras
+ */
+public class LoggerDecoder {
+
+    /**
+     * The report option.
+     */
+    private static final String REPORT = "--report";
+
+    /**
+     * The time unit option.
+     */
+    private static final String UNIT = "--unit=";
+
+    /**
+     * The output writer.
+     */
+    private final Writer out;
+
+    /**
+     * The report flag.
+     */
+    private final boolean report;
+
+    /**
+     * The number of nanoseconds in the time unit.
+     */
+    private final long unit;
+
+    /**
+     * The name of the time unit.
+     */
+    private final String unitName;
+
+    /**
+     * The latency histograms by the kind and the name.
+     */
+    private final Map<String, LatencyHistogram> histograms = new TreeMap<>();
+
+    /**
+     * The number of the failed invocations by the kind and the name.
+     */
+    private final Map<String, long[]> failures = new HashMap<>();
+
+    /**
+     * The default constructor.
+     *
+     * @param out    the output writer.
+     * @param report the report flag.
+     */
+    public LoggerDecoder(Writer out, boolean report) {
+        this(out, report, "s");
+    }
+
+    /**
+     * The default constructor.
+     *
+     * @param out      the output writer.
+     * @param report   the report flag.
+     * @param unitName the time unit {@code s}, {@code ms}, {@code us} or {@code ns}.
+     */
+    public LoggerDecoder(Writer out, boolean report, String unitName) {
+        this.out = out;
+        this.report = report;
+        this.unit = unit(unitName);
+        this.unitName = unitName;
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args the options and the files or directories.
+     * @throws IOException if the reading fails.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean report = false;
+        String unit = "s";
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            if (REPORT.equals(arg)) {
+                report = true;
+            } else if (arg.startsWith(UNIT)) {
+                unit = arg.substring(UNIT.length());
+            } else {
+                files.addAll(files(Paths.get(arg)));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: LoggerDecoder [" + REPORT + "] [" + UNIT + "s|ms|us|ns] <file|directory>...");
+            System.exit(1);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        LoggerDecoder decoder = new LoggerDecoder(out, report, unit);
+        for (Path file : files) {
+            decoder.decode(file);
+        }
+        decoder.finish();
+        out.flush();
+    }
+
+    /**
+     * Gets the files of the path. The files of the directory are ordered by the file index.
+     *
+     * @param path the file or directory.
+     * @return the list of files.
+     * @throws IOException if the directory listing fails.
+     */
+    private static List<Path> files(Path path) throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(path)) {
+            result.add(path);
+            return result;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, LoggerBinaryFormat.FILE_PREFIX + "*" + LoggerBinaryFormat.FILE_SUFFIX)) {
+            files.forEach(result::add);
+        }
+        result.sort((a, b) -> Long.compare(index(a), index(b)));
+        return result;
+    }
+
+    /**
+     * Gets the index of the file.
+     *
+     * @param path the file.
+     * @return the index of the file or {@code -1}.
+     */
+    private static long index(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(LoggerBinaryFormat.FILE_PREFIX.length(), name.length() - LoggerBinaryFormat.FILE_SUFFIX.length()));
+        } catch (RuntimeException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Decodes the file.
+     *
+     * @param file the binary log file.
+     * @throws IOException if the reading fails or the file is not the binary log file.
+     */
+    public void decode(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < LoggerBinaryFormat.HEADER_SIZE || buffer.getInt() != LoggerBinaryFormat.MAGIC) {
+            throw new IOException("Not supported binary log file " + file);
+        }
+        short version = buffer.getShort();
+        if (version != LoggerBinaryFormat.VERSION) {
+            throw new IOException("Not supported version " + version + " of the binary log file " + file);
+        }
+        buffer.getShort();
+        Map<Integer, String> names = new HashMap<>();
+        int position = buffer.position();
+        try {
+            while (position + LoggerBinaryFormat.RECORD_SIZE <= buffer.limit()) {
+                byte tag = buffer.get(position);
+                if (!isRecord(buffer, position)) {
+                    if (tag != LoggerBinaryFormat.TAG_EMPTY) {
+                        truncated(file, position);
+                        return;
+                    }
+                    position = skip(buffer, position);
+                    if (position < 0) {
+                        System.err.println("Corrupted record after the empty region of the binary log file " + file);
+                        return;
+                    }
+                    continue;
+                }
+                int length = buffer.getInt(position + 1);
+                buffer.position(position + LoggerBinaryFormat.RECORD_SIZE);
+                if (tag == LoggerBinaryFormat.TAG_NAME) {
+                    int id = buffer.getInt();
+                    names.put(id, string(buffer, buffer.getShort()));
+                } else if (tag == LoggerBinaryFormat.TAG_CALL) {
+                    byte kind = buffer.get();
+                    boolean failed = buffer.get() == LoggerBinaryFormat.OUTCOME_FAILED;
+                    String name = names.getOrDefault(buffer.getInt(), "?");
+                    long start = buffer.getLong();
+                    long duration = buffer.getLong();
+                    int status = buffer.getInt();
+                    String parameters = string(buffer, buffer.getInt());
+                    if (report) {
+                        record(kind(kind) + " " + name, duration, failed);
+                    } else {
+                        write(kind, name, start, duration, status, failed, parameters);
+                    }
+                }
+                position += length;
+            }
+        } catch (BufferUnderflowException | NegativeArraySizeException ex) {
+            truncated(file, position);
+        }
+    }
+
+    /**
+     * Reports the truncated file. The records after the position are not decoded.
+     *
+     * @param file     the binary log file.
+     * @param position the position of the truncated record.
+     */
+    private static void truncated(Path file, int position) {
+        System.err.println("Truncated record at the position " + position + " of the binary log file " + file);
+    }
+
+    /**
+     * Returns {@code true} if the position contains the record header with the valid length.
+     *
+     * @param buffer   the buffer of the file.
+     * @param position the position.
+     * @return {@code true} if the record length fits in the file.
+     */
+    private static boolean isRecord(ByteBuffer buffer, int position) {
+        if (position + LoggerBinaryFormat.RECORD_SIZE > buffer.limit()) {
+            return false;
+        }
+        int length = buffer.getInt(position + 1);
+        return length >= LoggerBinaryFormat.RECORD_SIZE && length <= buffer.limit() - position;
+    }
+
+    /**
+     * Skips the region without the data. The region is reserved by the writer which did not write
+     * the record or is the rest of the full file.
+     *
+     * @param buffer   the buffer of the file.
+     * @param position the start of the empty region.
+     * @return the position of the next record, the end of the file or {@code -1} if the next record is not valid.
+     */
+    private static int skip(ByteBuffer buffer, int position) {
+        int end = position;
+        while (end < buffer.limit() && buffer.get(end) == LoggerBinaryFormat.TAG_EMPTY) {
+            end++;
+        }
+        if (end == buffer.limit()) {
+            return end;
+        }
+        if (isRecord(buffer, end)) {
+            return end;
+        }
+        // the not finished record with the written length
+        for (int i = Math.max(position, end - Integer.BYTES); i < end; i++) {
+            if (isRecord(buffer, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the latency report.
+     *
+     * @throws IOException if the writing fails.
+     */
+    public void finish() throws IOException {
+        if (!report) {
+            return;
+        }
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = e.getValue().snapshot();
+            out.append(e.getKey())
+                    .append(" count=").append(Long.toString(snapshot.getCount()))
+                    .append(" failed=").append(Long.toString(failures.get(e.getKey())[0]))
+                    .append(" mean=").append(time(snapshot.getMean()))
+                    .append(" p50=").append(time(snapshot.getP50()))
+                    .append(" p90=").append(time(snapshot.getP90()))
+                    .append(" p99=").append(time(snapshot.getP99()))
+                    .append(" max=").append(time(snapshot.getMax()))
+                    .append('\n');
+        }
+    }
+
+    /**
+     * Records the invocation to the report.
+     *
+     * @param key      the kind and the name.
+     * @param duration the duration in nanoseconds.
+     * @param failed   the failed invocation flag.
+     */
+    private void record(String key, long duration, boolean failed) {
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(duration);
+        long[] count = failures.computeIfAbsent(key, k -> new long[1]);
+        if (failed) {
+            count[0]++;
+        }
+    }
+
+    /**
+     * Writes the invocation in the text format.
+     *
+     * @param kind       the invocation kind.
+     * @param name       the name.
+     * @param start      the start time in epoch nanoseconds.
+     * @param duration   the duration in nanoseconds.
+     * @param status     the response status.
+     * @param failed     the failed invocation flag.
+     * @param parameters the parameters.
+     * @throws IOException if the writing fails.
+     */
+    private void write(byte kind, String name, long start, long duration, int status, boolean failed, String parameters) throws IOException {
+        out.append(Instant.ofEpochSecond(0, start).toString()).append(' ').append(kind(kind)).append(' ').append(name);
+        if (kind == LoggerBinaryFormat.KIND_SERVICE) {
+            out.append('(').append(parameters).append(") [").append(time(duration)).append("] ")
+                    .append(failed ? "failed." : "succeed.");
+        } else {
+            out.append(' ').append(parameters).append(" [").append(time(duration)).append("] finished [")
+                    .append(Integer.toString(status)).append("].");
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Reads the UTF-8 string.
+     *
+     * @param buffer the buffer.
+     * @param length the length of the string in bytes.
+     * @return the string.
+     */
+    private static String string(ByteBuffer buffer, int length) {
+        byte[] data = new byte[length];
+        buffer.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the name of the invocation kind.
+     *
+     * @param kind the invocation kind.
+     * @return the name of the kind.
+     */
+    private static String kind(byte kind) {
+        switch (kind) {
+            case LoggerBinaryFormat.KIND_SERVICE:
+                return "service";
+            case LoggerBinaryFormat.KIND_REST:
+                return "rest";
+            case LoggerBinaryFormat.KIND_CLIENT:
+                return "client";
+            default:
+                return "unknown";
+        }
+    }
+
+    /**
+     * Gets the number of nanoseconds for the time unit.
+     *
+     * @param unit the time unit {@code s}, {@code ms}, {@code us} or {@code ns}.
+     * @return the number of nanoseconds.
+     */
+    private static long unit(String unit) {
+        switch (unit) {
+            case "ns":
+                return 1L;
+            case "us":
+                return 1_000L;
+            case "ms":
+                return 1_000_000L;
+            case "s":
+                return 1_000_000_000L;
+            default:
+                throw new IllegalArgumentException("Not supported time unit " + unit);
+        }
+    }
+
+    /**
+     * Formats the nanoseconds in the time unit with the three fraction digits.
+     *
+     * @param nanos the value in nanoseconds.
+     * @return the formatted value with the unit name.
+     */
+    private String time(long nanos) {
+        long value = (nanos * 1000 + unit / 2) / unit;
+        StringBuilder sb = new StringBuilder(16).append(value / 1000).append('.');
+        long fraction = value % 1000;
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).append(unitName).toString();
+    }
+}
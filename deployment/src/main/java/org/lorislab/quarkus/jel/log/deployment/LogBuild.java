@@ -20,9 +20,14 @@ import io.quarkus.arc.deployment.AnnotationsTransformerBuildItem;
 import io.quarkus.arc.processor.AnnotationsTransformer;
 import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.deployment.annotations.ExecutionTime;
+import io.quarkus.deployment.annotations.Record;
 import io.quarkus.deployment.builditem.BytecodeTransformerBuildItem;
 import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
+import io.quarkus.deployment.builditem.ShutdownContextBuildItem;
+import io.quarkus.resteasy.common.spi.ResteasyJaxrsProviderBuildItem;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.jboss.jandex.*;
 import org.lorislab.quarkus.jel.log.interceptor.*;
 import org.slf4j.Logger;
@@ -44,12 +49,24 @@ public class LogBuild {
 
     private static final DotName LOG_PARAM = DotName.createSimple(LoggerParam.class.getName());
 
+    private static final DotName LOG_SERVICE = DotName.createSimple(LoggerService.class.getName());
+
+    private static final DotName LOG_EXCLUDE = DotName.createSimple(LoggerExclude.class.getName());
+
+    private static final DotName REST_PATH = DotName.createSimple("javax.ws.rs.Path");
+
+    private static final DotName OBJECT = DotName.createSimple(Object.class.getName());
+
     private static final String LOG_BUILDER_SERVICE = LoggerBuilderService.class.getName();
 
     private static final List<DotName> ANNOTATION_DOT_NAMES =
             Stream.of(ApplicationScoped.class, Singleton.class, RequestScoped.class)
             .map(Class::getName).map(DotName::createSimple).collect(Collectors.toList());
 
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ACC_BRIDGE = 0x0040;
+
     static final String FEATURE_NAME = "jel-log";
 
     @BuildStep
@@ -57,6 +74,14 @@ public class LogBuild {
         return new FeatureBuildItem(FEATURE_NAME);
     }
 
+    @BuildStep
+    void loggerMetrics(BuildProducer<ResteasyJaxrsProviderBuildItem> providers) {
+        boolean enabled = ConfigProvider.getConfig().getOptionalValue("org.lorislab.jel.logger.metrics.enabled", Boolean.class).orElse(false);
+        if (enabled) {
+            providers.produce(new ResteasyJaxrsProviderBuildItem(LoggerMetricsFilter.class.getName()));
+        }
+    }
+
     @BuildStep
     void loggerParameter(CombinedIndexBuildItem indexBuildItem, BuildProducer<BytecodeTransformerBuildItem> transformers) {
 
@@ -86,6 +111,114 @@ public class LogBuild {
         }
     }
 
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void loggerMethods(CombinedIndexBuildItem indexBuildItem, ShutdownContextBuildItem shutdown, LoggerRecorder recorder) {
+        IndexView index = indexBuildItem.getIndex();
+
+        Set<ClassInfo> classes = new LinkedHashSet<>();
+        for (AnnotationInstance annotation : index.getAnnotations(LOG_SERVICE)) {
+            AnnotationTarget target = annotation.target();
+            if (target.kind() == AnnotationTarget.Kind.CLASS) {
+                classes.add(target.asClass());
+            } else if (target.kind() == AnnotationTarget.Kind.METHOD) {
+                classes.add(target.asMethod().declaringClass());
+            }
+        }
+        for (DotName name : ANNOTATION_DOT_NAMES) {
+            for (AnnotationInstance annotation : index.getAnnotations(name)) {
+                if (annotation.target().kind() == AnnotationTarget.Kind.CLASS
+                        && isBindingInclude(annotation.target().asClass().name().toString())) {
+                    classes.add(annotation.target().asClass());
+                }
+            }
+        }
+        for (AnnotationInstance annotation : index.getAnnotations(REST_PATH)) {
+            if (annotation.target().kind() == AnnotationTarget.Kind.CLASS) {
+                classes.add(annotation.target().asClass());
+            }
+        }
+
+        List<LoggerMethodItem> items = new ArrayList<>();
+        for (ClassInfo classInfo : classes) {
+            short mod = classInfo.flags();
+            if (!Modifier.isInterface(mod) && !Modifier.isAbstract(mod)) {
+                addMethodItems(index, classInfo, items);
+            }
+        }
+        log.debug("LoggerMethods: {}", items);
+        recorder.init(items, shutdown);
+    }
+
+    private void addMethodItems(IndexView index, ClassInfo classInfo, List<LoggerMethodItem> items) {
+        AnnotationInstance classAnnotation = getClassAnnotation(index, classInfo);
+        Set<String> keys = new HashSet<>();
+        ClassInfo current = classInfo;
+        while (current != null && !OBJECT.equals(current.name())) {
+            for (MethodInfo methodInfo : current.methods()) {
+                short mod = methodInfo.flags();
+                if (methodInfo.name().startsWith("<") || Modifier.isStatic(mod) || Modifier.isPrivate(mod)
+                        || (mod & (ACC_SYNTHETIC | ACC_BRIDGE)) != 0) {
+                    continue;
+                }
+                String parameters = methodInfo.parameters().stream().map(t -> t.name().toString()).collect(Collectors.joining(","));
+                if (keys.add(methodInfo.name() + "(" + parameters + ")")) {
+                    LoggerMethodItem item = new LoggerMethodItem();
+                    item.setClassName(classInfo.name().toString());
+                    item.setMethodName(methodInfo.name());
+                    item.setParameters(parameters);
+                    AnnotationInstance annotation = methodInfo.annotation(LOG_SERVICE);
+                    if (annotation != null && annotation.target().kind() == AnnotationTarget.Kind.METHOD) {
+                        item.setMethodAnnotation(true);
+                        item.setLog(annotation.valueWithDefault(index, "log").asBoolean());
+                        item.setStacktrace(annotation.valueWithDefault(index, "stacktrace").asBoolean());
+                    }
+                    if (classAnnotation != null) {
+                        item.setClassAnnotation(true);
+                        item.setClassLog(classAnnotation.valueWithDefault(index, "log").asBoolean());
+                        item.setClassStacktrace(classAnnotation.valueWithDefault(index, "stacktrace").asBoolean());
+                    }
+                    item.setExcludes(getExcludes(methodInfo));
+                    items.add(item);
+                }
+            }
+            current = current.superName() == null ? null : index.getClassByName(current.superName());
+        }
+    }
+
+    private List<String> getExcludes(MethodInfo methodInfo) {
+        List<String> result = new ArrayList<>(Collections.nCopies(methodInfo.parameters().size(), ""));
+        for (AnnotationInstance annotation : methodInfo.annotations()) {
+            if (LOG_EXCLUDE.equals(annotation.name()) && annotation.target().kind() == AnnotationTarget.Kind.METHOD_PARAMETER) {
+                int position = annotation.target().asMethodParameter().position();
+                AnnotationValue mask = annotation.value("mask");
+                if (mask != null && !mask.asString().isEmpty()) {
+                    result.set(position, mask.asString());
+                } else {
+                    String name = methodInfo.parameterName(position);
+                    result.set(position, name != null ? name : "arg" + position);
+                }
+            }
+        }
+        return result;
+    }
+
+    private AnnotationInstance getClassAnnotation(IndexView index, ClassInfo classInfo) {
+        ClassInfo current = classInfo;
+        while (current != null && !OBJECT.equals(current.name())) {
+            AnnotationInstance annotation = current.classAnnotation(LOG_SERVICE);
+            if (annotation != null) {
+                return annotation;
+            }
+            current = current.superName() == null ? null : index.getClassByName(current.superName());
+        }
+        return null;
+    }
+
+    private boolean isBindingInclude(String name) {
+        return buildConfig.includes.stream().anyMatch(name::startsWith) && !LOG_BUILDER_SERVICE.equals(name);
+    }
+
     private void addToMap(Map<DotName, LoggerParamInfo> map, AnnotationInstance annotation, String valueName, MethodInfo methodInfo, int priority) {
         List<DotName> classes = getClassArrayValue(annotation, valueName);
         for (DotName name : classes) {
@@ -136,9 +269,7 @@ public class LogBuild {
                 Map<DotName, List<AnnotationInstance>> tmp = target.annotations();
                 Optional<DotName> dot = ANNOTATION_DOT_NAMES.stream().filter(tmp::containsKey).findFirst();
                 if (dot.isPresent()) {
-                    String name = target.name().toString();
-                    Optional<String> add = buildConfig.includes.stream().filter(name::startsWith).findFirst();
-                    if (add.isPresent() && !LOG_BUILDER_SERVICE.equals(name)) {
+                    if (isBindingInclude(target.name().toString())) {
                         context.transform().add(LoggerService.class).done();
                     }
                 }
@@ -3,7 +3,7 @@ package org.lorislab.quarkus.jel.log.deployment;
 import org.jboss.jandex.DotName;
 import org.objectweb.asm.*;
 
-import java.util.Map;
+import java.util.*;
 import java.util.function.BiFunction;
 
 /**
@@ -80,7 +80,22 @@ public class LogBuilderEnhancer implements BiFunction<String, ClassVisitor, Clas
         }
 
         /**
-         * Add the classes
+         * Sorts the mapping by the priority, the highest priority first.
+         *
+         * @param data the data.
+         * @return the sorted list of the mapping.
+         */
+        private static List<LoggerParamInfo> sort(Map<DotName, LoggerParamInfo> data) {
+            if (data == null) {
+                return Collections.emptyList();
+            }
+            List<LoggerParamInfo> result = new ArrayList<>(data.values());
+            result.sort(Comparator.comparingInt((LoggerParamInfo i) -> i.priority).reversed());
+            return result;
+        }
+
+        /**
+         * Add the map of the classes ordered by the priority, the highest priority first.
          *
          * @param methodName the method name.
          * @param data       the data.
@@ -89,17 +104,16 @@ public class LogBuilderEnhancer implements BiFunction<String, ClassVisitor, Clas
             MethodVisitor visitor = super.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE,
                     methodName,
                     "()Ljava/util/Map;",
-                    "()Ljava/util/Map<Ljava/lang/Class;Ljava/util/function/Function<Ljava/lang/Object;Ljava/lang/String;>;>;",
+                    "()Ljava/util/Map<Ljava/lang/Class<*>;Ljava/util/function/Function<Ljava/lang/Object;Ljava/lang/String;>;>;",
                     null);
 
             visitor.visitCode();
-            visitor.visitTypeInsn(Opcodes.NEW, "java/util/HashMap");
+            visitor.visitTypeInsn(Opcodes.NEW, "java/util/LinkedHashMap");
             visitor.visitInsn(Opcodes.DUP);
-            visitor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
+            visitor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/util/LinkedHashMap", "<init>", "()V", false);
             visitor.visitVarInsn(Opcodes.ASTORE, 1);
 
-            for (Map.Entry<DotName, LoggerParamInfo> entry : data.entrySet()) {
-                LoggerParamInfo info = entry.getValue();
+            for (LoggerParamInfo info : sort(data)) {
                 addMapping(visitor, getInternalName(info.name), getInternalName(info.methodInfo.declaringClass().name()), info.methodInfo.name());
             }
             visitor.visitVarInsn(Opcodes.ALOAD, 1);
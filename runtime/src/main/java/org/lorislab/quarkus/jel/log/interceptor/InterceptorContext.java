@@ -15,6 +15,8 @@
  */
 package org.lorislab.quarkus.jel.log.interceptor;
 
+import java.util.function.Supplier;
+
 /**
  * The interceptor context.
  *
@@ -23,10 +25,15 @@ package org.lorislab.quarkus.jel.log.interceptor;
 public class InterceptorContext {
 
     /**
-     * The start time.
+     * The monotonic start time in nanoseconds.
      */
     private final long startTime;
 
+    /**
+     * The monotonic end time in nanoseconds.
+     */
+    private volatile long endTime;
+
     /**
      * The service method.
      */
@@ -34,19 +41,50 @@ public class InterceptorContext {
 
     /**
      * The list of method parameters.
+     * <p>
+     * The field is set by the constructor with the rendered parameters or by the first {@link #getParameters()} call.
+     * @deprecated the deferred parameters are not rendered until the record is logged, use {@link #getParameters()}.
+     */
+    @Deprecated
+    public String parameters;
+
+    /**
+     * The deferred list of method parameters.
      */
-    public final String parameters;
+    private Supplier<String> parametersSupplier;
 
     /**
      * The result value.
+     * <p>
+     * The field is set by the {@link #closeContext(String)} or by the first {@link #getResult()} call.
+     * @deprecated the deferred result is not rendered until the record is logged, use {@link #getResult()}.
      */
+    @Deprecated
     public String result;
 
     /**
-     * The execution time.
+     * The deferred result value.
      */
+    private Supplier<String> resultSupplier;
+
+    /**
+     * The rendered execution time.
+     * <p>
+     * The field is set by the first {@link #getTime()} call.
+     * @deprecated the execution time is not rendered until the record is logged, use {@link #getTime()}.
+     */
+    @Deprecated
     public String time;
 
+    /**
+     * The flight recorder event of the call.
+     */
+    Object event;
+
+    /**
+     * The registered deadline flag, see {@link LoggerDeadline}.
+     */
+    private volatile boolean deadline;
 
     /**
      * The default constructor.
@@ -54,18 +92,127 @@ public class InterceptorContext {
      * @param parameters the method parameters.
      */
     public InterceptorContext(String method, String parameters) {
-        this.startTime = System.currentTimeMillis();
+        this.startTime = System.nanoTime();
         this.method = method;
         this.parameters = parameters;
     }
 
+    /**
+     * The deferred parameters constructor.
+     * The parameters are rendered on the first {@link #getParameters()} call.
+     * @param method the method.
+     * @param parameters the method parameters supplier.
+     */
+    public InterceptorContext(String method, Supplier<String> parameters) {
+        this.startTime = System.nanoTime();
+        this.method = method;
+        this.parametersSupplier = parameters;
+    }
+
     /**
      * Close the context.
      * @param result the result.
      */
     public void closeContext(String result) {
-        time = String.format("%.3f", (System.currentTimeMillis() - startTime) / 1000f);
+        endTime = System.nanoTime();
         this.result = result;
+        cancelDeadline();
+    }
+
+    /**
+     * Close the context with the deferred result.
+     * The result is rendered on the first {@link #getResult()} call.
+     * @param result the result supplier.
+     */
+    public void closeContext(Supplier<String> result) {
+        endTime = System.nanoTime();
+        this.resultSupplier = result;
+        cancelDeadline();
+    }
+
+    /**
+     * Sets the registered deadline flag. The context is removed from the deadline registry when it is closed.
+     * @param deadline the registered deadline flag.
+     */
+    void setDeadline(boolean deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Removes the context from the deadline registry.
+     */
+    private void cancelDeadline() {
+        if (deadline) {
+            deadline = false;
+            LoggerDeadline.remove(this);
+        }
+    }
+
+    /**
+     * Gets the list of method parameters.
+     * @return the list of method parameters.
+     */
+    public String getParameters() {
+        String tmp = parameters;
+        if (tmp == null && parametersSupplier != null) {
+            tmp = parametersSupplier.get();
+            parameters = tmp;
+        }
+        return tmp;
+    }
+
+    /**
+     * Gets the result value.
+     * @return the result value.
+     */
+    public String getResult() {
+        String tmp = result;
+        if (tmp == null && resultSupplier != null) {
+            tmp = resultSupplier.get();
+            result = tmp;
+        }
+        return tmp;
+    }
+
+    /**
+     * Gets the monotonic start time in nanoseconds.
+     * @return the start time.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets the monotonic end time in nanoseconds.
+     * @return the end time or {@code 0} if the context is not closed.
+     */
+    public long getEndTime() {
+        return endTime;
     }
 
+    /**
+     * Gets the execution time in nanoseconds.
+     * For the open context it is the time from the start until now.
+     * @return the execution time in nanoseconds.
+     */
+    public long getDuration() {
+        if (endTime == 0) {
+            return System.nanoTime() - startTime;
+        }
+        return endTime - startTime;
+    }
+
+    /**
+     * Gets the rendered execution time.
+     * The unit and precision are defined by the logger configuration.
+     * @return the execution time or {@code null} if the context is not closed.
+     */
+    public String getTime() {
+        String tmp = time;
+        if (tmp == null && endTime != 0) {
+            tmp = LoggerConfiguration.formatTime(endTime - startTime);
+            time = tmp;
+        }
+        return tmp;
+    }
 }
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The lock-free log-linear latency histogram.
+ * <p>
+ * The values are recorded in microseconds. Each power of two range is split into
+ * {@link #SUB_BUCKETS} linear buckets, the relative error is below 12.5%.
+ * The buckets are striped by the thread to avoid the contention on the hot methods.
+ *
+ * @author Andrej Petras
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of bits of the linear sub-buckets.
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * The number of the linear sub-buckets.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * The maximum exponent of the recorded value in microseconds (about 12 days).
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * The number of the buckets.
+     */
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    /**
+     * The number of the stripes.
+     */
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    /**
+     * The striped bucket counters.
+     */
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    /**
+     * The number of the recorded values.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the recorded values in nanoseconds.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * The maximum recorded value in nanoseconds.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * The default constructor.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    /**
+     * Records the duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)].incrementAndGet(index(value / 1000));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of the recorded values.
+     *
+     * @return the number of the recorded values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of the recorded values.
+     *
+     * @return the sum of the recorded values in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Gets the cumulative number of the values less than or equal to the bounds without the snapshot.
+     *
+     * @param bounds the sorted bounds in nanoseconds.
+     * @param counts the result cumulative counts with the length of the bounds.
+     */
+    public void countsBelow(long[] bounds, long[] counts) {
+        Arrays.fill(counts, 0);
+        for (AtomicLongArray stripe : stripes) {
+            int bound = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long value = stripe.get(i);
+                if (value == 0) {
+                    continue;
+                }
+                long upper = upperBound(i);
+                while (bound < bounds.length && bounds[bound] < upper) {
+                    bound++;
+                }
+                if (bound < bounds.length) {
+                    counts[bound] += value;
+                }
+            }
+        }
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+    }
+
+    /**
+     * Creates the snapshot of the histogram.
+     *
+     * @return the snapshot of the histogram.
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] += stripe.get(i);
+            }
+        }
+        return new Snapshot(buckets, sum.sum(), max.get());
+    }
+
+    /**
+     * Gets the bucket index of the value.
+     *
+     * @param micros the value in microseconds.
+     * @return the bucket index.
+     */
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the upper bound of the bucket.
+     *
+     * @param index the bucket index.
+     * @return the upper bound of the bucket in nanoseconds.
+     */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return (index + 1) * 1000L;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index & (SUB_BUCKETS - 1);
+        long micros = ((long) (SUB_BUCKETS + sub + 1)) << (exponent - SUB_BITS);
+        return micros * 1000L;
+    }
+
+    /**
+     * The snapshot of the histogram.
+     */
+    public static final class Snapshot {
+
+        /**
+         * The bucket counts.
+         */
+        private final long[] buckets;
+
+        /**
+         * The number of the values.
+         */
+        private final long count;
+
+        /**
+         * The sum of the values in nanoseconds.
+         */
+        private final long sum;
+
+        /**
+         * The maximum value in nanoseconds.
+         */
+        private final long max;
+
+        /**
+         * The default constructor.
+         *
+         * @param buckets the bucket counts.
+         * @param sum     the sum of the values.
+         * @param max     the maximum value.
+         */
+        Snapshot(long[] buckets, long sum, long max) {
+            this.buckets = buckets;
+            long tmp = 0;
+            for (long bucket : buckets) {
+                tmp += bucket;
+            }
+            this.count = tmp;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Merge two snapshots.
+         *
+         * @param a the first snapshot.
+         * @param b the second snapshot.
+         * @return the merged snapshot.
+         */
+        static Snapshot merge(Snapshot a, Snapshot b) {
+            long[] buckets = a.buckets.clone();
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] += b.buckets[i];
+            }
+            return new Snapshot(buckets, a.sum + b.sum, Math.max(a.max, b.max));
+        }
+
+        /**
+         * Gets the number of the values.
+         *
+         * @return the number of the values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the sum of the values in nanoseconds.
+         *
+         * @return the sum of the values.
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Gets the maximum value in nanoseconds.
+         *
+         * @return the maximum value.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Gets the mean value in nanoseconds.
+         *
+         * @return the mean value.
+         */
+        public long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Gets the 50th percentile in nanoseconds.
+         *
+         * @return the 50th percentile.
+         */
+        public long getP50() {
+            return getPercentile(50);
+        }
+
+        /**
+         * Gets the 90th percentile in nanoseconds.
+         *
+         * @return the 90th percentile.
+         */
+        public long getP90() {
+            return getPercentile(90);
+        }
+
+        /**
+         * Gets the 99th percentile in nanoseconds.
+         *
+         * @return the 99th percentile.
+         */
+        public long getP99() {
+            return getPercentile(99);
+        }
+
+        /**
+         * Gets the percentile. The value is the upper bound of the bucket limited by the maximum value.
+         *
+         * @param percentile the percentile between 0 and 100.
+         * @return the percentile value in nanoseconds.
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100d));
+            long tmp = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                tmp += buckets[i];
+                if (tmp >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Gets the cumulative number of the values less than or equal to the bound.
+         *
+         * @param nanos the bound in nanoseconds.
+         * @return the cumulative number of the values.
+         */
+        public long getCountBelow(long nanos) {
+            long tmp = 0;
+            for (int i = 0; i < buckets.length && upperBound(i) <= nanos; i++) {
+                tmp += buckets[i];
+            }
+            return tmp;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        public String toString() {
+            return "count=" + count + ",p50=" + getP50() + ",p90=" + getP90() + ",p99=" + getP99() + ",max=" + max;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+/**
+ * The layout of the binary invocation log file.
+ * <p>
+ * All values are big endian. The file starts with the header {@code int magic, short version, short reserved}
+ * followed by the records. Each record starts with the {@code byte tag, int length} header, the length
+ * is the size of the whole record. The writer writes the length and the data first and the tag last,
+ * the {@link #TAG_EMPTY} tag marks the reserved but not finished record, the zero length marks
+ * the region without the data.
+ * <ul>
+ *     <li>{@link #TAG_NAME}: {@code int id, short length, byte[length] name} - the dictionary entry
+ *     written before the first call record of the name in the file.</li>
+ *     <li>{@link #TAG_CALL}: {@code byte kind, byte outcome, int id, long start, long duration, int status,
+ *     int length, byte[length] parameters} - the invocation with the start in epoch nanoseconds,
+ *     the duration in nanoseconds and the UTF-8 parameters.</li>
+ * </ul>
+ *
+ * @author Andrej Petras
+ */
+public final class LoggerBinaryFormat {
+
+    /**
+     * The magic number of the file.
+     */
+    public static final int MAGIC = 0x4A454C42;
+
+    /**
+     * The version of the file layout.
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * The size of the file header.
+     */
+    public static final int HEADER_SIZE = 8;
+
+    /**
+     * The size of the record header.
+     */
+    public static final int RECORD_SIZE = 5;
+
+    /**
+     * The tag of the not finished record.
+     */
+    public static final byte TAG_EMPTY = 0;
+
+    /**
+     * The dictionary record tag.
+     */
+    public static final byte TAG_NAME = 1;
+
+    /**
+     * The invocation record tag.
+     */
+    public static final byte TAG_CALL = 2;
+
+    /**
+     * The size of the dictionary record without the name.
+     */
+    public static final int NAME_SIZE = RECORD_SIZE + 6;
+
+    /**
+     * The size of the invocation record without the parameters.
+     */
+    public static final int CALL_SIZE = RECORD_SIZE + 30;
+
+    /**
+     * The service method invocation.
+     */
+    public static final byte KIND_SERVICE = 1;
+
+    /**
+     * The rest resource method invocation.
+     */
+    public static final byte KIND_REST = 2;
+
+    /**
+     * The rest client invocation.
+     */
+    public static final byte KIND_CLIENT = 3;
+
+    /**
+     * The succeed invocation.
+     */
+    public static final byte OUTCOME_SUCCEED = 0;
+
+    /**
+     * The failed invocation.
+     */
+    public static final byte OUTCOME_FAILED = 1;
+
+    /**
+     * The file name prefix.
+     */
+    public static final String FILE_PREFIX = "jel-log-";
+
+    /**
+     * The file name suffix.
+     */
+    public static final String FILE_SUFFIX = ".bin";
+
+    /**
+     * The default constructor.
+     */
+    private LoggerBinaryFormat() {
+        // empty constructor
+    }
+}
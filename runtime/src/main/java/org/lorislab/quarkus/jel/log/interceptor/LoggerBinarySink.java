@@ -0,0 +1,411 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The binary invocation log.
+ * <p>
+ * Every finished invocation is written as the fixed layout record to the memory mapped file,
+ * see {@link LoggerBinaryFormat}. The writer reserves the region of the file by the atomic increment
+ * of the file position and writes the record without the lock, only the roll over of the full file is locked.
+ * The tag of the record is written last after the release fence, the reader never sees the finished tag
+ * of the partially written record.
+ * The names are interned in the bounded dictionary and written once per file, the names over the limit
+ * share the {@value #OTHER} name. The parameters are disabled by default and the written parameters are limited.
+ * The full file is rolled over to the next file and only the configured number of files is kept.
+ * The sink is disabled by default, see the {@code org.lorislab.jel.logger.binary.enabled} configuration.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerBinarySink {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(LoggerBinarySink.class);
+
+    /**
+     * The name of the keys over the dictionary limit.
+     */
+    static final String OTHER = "(other)";
+
+    /**
+     * The binary sink enabled flag.
+     */
+    static final boolean ENABLED;
+
+    /**
+     * The directory of the files.
+     */
+    private static final Path DIRECTORY;
+
+    /**
+     * The size of the file in bytes.
+     */
+    private static final int SIZE;
+
+    /**
+     * The number of the kept files.
+     */
+    private static final int FILES;
+
+    /**
+     * The parameters flag.
+     */
+    private static final boolean PARAMETERS;
+
+    /**
+     * The maximum length of the parameters in bytes.
+     */
+    private static final int PARAMETERS_LIMIT;
+
+    /**
+     * The maximum number of the names.
+     */
+    private static final int NAMES_LIMIT;
+
+    /**
+     * The maximum length of the name in bytes.
+     */
+    private static final int NAME_LIMIT = 1024;
+
+    /**
+     * The epoch time in nanoseconds of the {@link #NANO_TIME}.
+     */
+    private static final long EPOCH_NANOS;
+
+    /**
+     * The monotonic base time in nanoseconds.
+     */
+    private static final long NANO_TIME;
+
+    /**
+     * The empty parameters.
+     */
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * The dictionary ids by the key.
+     */
+    private static final ConcurrentMap<Object, Integer> IDS = new ConcurrentHashMap<>();
+
+    /**
+     * The dictionary names by the id.
+     */
+    private static final AtomicReferenceArray<byte[]> NAMES;
+
+    /**
+     * The next dictionary id. The id {@code 0} is the name of the keys over the limit.
+     */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+    /**
+     * The current file.
+     */
+    private static volatile Segment segment;
+
+    /**
+     * The index of the current file.
+     */
+    private static long index = -1;
+
+    /**
+     * The sink disabled after the error flag.
+     */
+    private static volatile boolean broken;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        ENABLED = config.getOptionalValue("org.lorislab.jel.logger.binary.enabled", Boolean.class).orElse(false);
+        DIRECTORY = Paths.get(config.getOptionalValue("org.lorislab.jel.logger.binary.dir", String.class).orElse("jel-log"));
+        SIZE = Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.binary.size", Integer.class).orElse(64)) * 1024 * 1024;
+        FILES = Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.binary.files", Integer.class).orElse(8));
+        PARAMETERS = config.getOptionalValue("org.lorislab.jel.logger.binary.parameters", Boolean.class).orElse(false);
+        PARAMETERS_LIMIT = Math.min(64 * 1024, Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.binary.parameters.limit", Integer.class).orElse(256)));
+        NAMES_LIMIT = Math.max(2, config.getOptionalValue("org.lorislab.jel.logger.binary.names", Integer.class).orElse(4096));
+        NAMES = new AtomicReferenceArray<>(NAMES_LIMIT);
+        NAMES.set(0, OTHER.getBytes(StandardCharsets.UTF_8));
+        NANO_TIME = System.nanoTime();
+        EPOCH_NANOS = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerBinarySink() {
+        // empty constructor
+    }
+
+    /**
+     * Writes the finished invocation.
+     *
+     * @param kind    the invocation kind.
+     * @param key     the name key, the logger method or the name string.
+     * @param context the closed interceptor context.
+     * @param failed  the failed invocation flag.
+     * @param status  the response status or {@code 0}.
+     */
+    static void write(byte kind, Object key, InterceptorContext context, boolean failed, int status) {
+        if (broken) {
+            return;
+        }
+        byte[] parameters = PARAMETERS ? parameters(context.getParameters()) : EMPTY;
+        long start = EPOCH_NANOS + (context.getStartTime() - NANO_TIME);
+        long duration = context.getDuration();
+        byte outcome = failed ? LoggerBinaryFormat.OUTCOME_FAILED : LoggerBinaryFormat.OUTCOME_SUCCEED;
+        int id = id(key);
+        byte[] name = NAMES.get(id);
+        while (true) {
+            Segment tmp = segment;
+            if (tmp == null) {
+                tmp = roll(null);
+                if (tmp == null) {
+                    return;
+                }
+            }
+            boolean dictionary = !tmp.isWritten(id);
+            int size = LoggerBinaryFormat.CALL_SIZE + parameters.length;
+            if (dictionary) {
+                size += LoggerBinaryFormat.NAME_SIZE + name.length;
+            }
+            long offset = tmp.position.getAndAdd(size);
+            if (offset + size > SIZE) {
+                if (roll(tmp) == null) {
+                    return;
+                }
+                continue;
+            }
+            ByteBuffer buffer = tmp.buffer.duplicate();
+            int position = (int) offset;
+            if (dictionary) {
+                tmp.setWritten(id);
+                int length = LoggerBinaryFormat.NAME_SIZE + name.length;
+                buffer.position(position + 1);
+                buffer.putInt(length).putInt(id).putShort((short) name.length).put(name);
+                commit(buffer, position, LoggerBinaryFormat.TAG_NAME);
+                position += length;
+            }
+            buffer.position(position + 1);
+            buffer.putInt(LoggerBinaryFormat.CALL_SIZE + parameters.length)
+                    .put(kind).put(outcome).putInt(id)
+                    .putLong(start).putLong(duration).putInt(status)
+                    .putInt(parameters.length).put(parameters);
+            commit(buffer, position, LoggerBinaryFormat.TAG_CALL);
+            return;
+        }
+    }
+
+    /**
+     * Finish the written record. The tag is written after the data of the record.
+     *
+     * @param buffer   the buffer of the file.
+     * @param position the position of the record.
+     * @param tag      the tag of the record.
+     */
+    private static void commit(ByteBuffer buffer, int position, byte tag) {
+        VarHandle.releaseFence();
+        buffer.put(position, tag);
+    }
+
+    /**
+     * Gets the limited UTF-8 bytes of the parameters.
+     *
+     * @param value the rendered parameters or {@code null}.
+     * @return the bytes of the parameters.
+     */
+    private static byte[] parameters(String value) {
+        if (value == null || PARAMETERS_LIMIT == 0) {
+            return EMPTY;
+        }
+        String tmp = value.length() > PARAMETERS_LIMIT ? value.substring(0, PARAMETERS_LIMIT) : value;
+        byte[] result = tmp.getBytes(StandardCharsets.UTF_8);
+        return result.length > PARAMETERS_LIMIT ? Arrays.copyOf(result, PARAMETERS_LIMIT) : result;
+    }
+
+    /**
+     * Gets the dictionary id of the key.
+     *
+     * @param key the name key.
+     * @return the dictionary id or {@code 0} if the dictionary is full.
+     */
+    private static int id(Object key) {
+        Integer id = IDS.get(key);
+        if (id == null) {
+            if (NEXT_ID.get() >= NAMES_LIMIT) {
+                return 0;
+            }
+            id = IDS.computeIfAbsent(key, k -> {
+                int next = NEXT_ID.getAndIncrement();
+                if (next >= NAMES_LIMIT) {
+                    return null;
+                }
+                byte[] name = k.toString().getBytes(StandardCharsets.UTF_8);
+                NAMES.set(next, name.length > NAME_LIMIT ? Arrays.copyOf(name, NAME_LIMIT) : name);
+                return next;
+            });
+        }
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * Creates the next file and deletes the oldest file.
+     *
+     * @param full the full file or {@code null}.
+     * @return the current file or {@code null} if the file creation failed.
+     */
+    private static synchronized Segment roll(Segment full) {
+        Segment tmp = segment;
+        if (tmp != full || broken) {
+            return tmp;
+        }
+        try {
+            if (index < 0) {
+                Files.createDirectories(DIRECTORY);
+                index = lastIndex();
+            }
+            if (full != null) {
+                full.buffer.force();
+            }
+            index++;
+            Path path = DIRECTORY.resolve(LoggerBinaryFormat.FILE_PREFIX + index + LoggerBinaryFormat.FILE_SUFFIX);
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+            }
+            buffer.putInt(LoggerBinaryFormat.MAGIC).putShort(LoggerBinaryFormat.VERSION).putShort((short) 0);
+            Files.deleteIfExists(DIRECTORY.resolve(LoggerBinaryFormat.FILE_PREFIX + (index - FILES) + LoggerBinaryFormat.FILE_SUFFIX));
+            tmp = new Segment(buffer);
+            segment = tmp;
+            return tmp;
+        } catch (IOException ex) {
+            broken = true;
+            log.error("Error create the binary log file in the directory {}", DIRECTORY, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the index of the last existing file.
+     *
+     * @return the index of the last file or {@code -1}.
+     * @throws IOException if the directory listing fails.
+     */
+    private static long lastIndex() throws IOException {
+        long result = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY, LoggerBinaryFormat.FILE_PREFIX + "*" + LoggerBinaryFormat.FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    result = Math.max(result, Long.parseLong(name.substring(LoggerBinaryFormat.FILE_PREFIX.length(), name.length() - LoggerBinaryFormat.FILE_SUFFIX.length())));
+                } catch (NumberFormatException ex) {
+                    // ignore the not matching file
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Flush the current file.
+     */
+    static synchronized void shutdown() {
+        Segment tmp = segment;
+        if (tmp != null) {
+            tmp.buffer.force();
+        }
+    }
+
+    /**
+     * The memory mapped file.
+     */
+    private static final class Segment {
+
+        /**
+         * The file buffer.
+         */
+        private final MappedByteBuffer buffer;
+
+        /**
+         * The next free position of the file.
+         */
+        private final AtomicLong position = new AtomicLong(LoggerBinaryFormat.HEADER_SIZE);
+
+        /**
+         * The dictionary ids written to the file.
+         */
+        private final AtomicLongArray written = new AtomicLongArray((NAMES_LIMIT + 63) / 64);
+
+        /**
+         * The default constructor.
+         *
+         * @param buffer the file buffer.
+         */
+        Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Returns {@code true} if the dictionary record of the id was written to the file.
+         * The call record reserved after this method returned {@code true} follows the dictionary record.
+         *
+         * @param id the dictionary id.
+         * @return the written flag.
+         */
+        boolean isWritten(int id) {
+            return (written.get(id >>> 6) & (1L << id)) != 0;
+        }
+
+        /**
+         * Marks the dictionary record of the id as written.
+         *
+         * @param id the dictionary id.
+         */
+        void setWritten(int id) {
+            int i = id >>> 6;
+            long bit = 1L << id;
+            long value = written.get(i);
+            while ((value & bit) == 0 && !written.compareAndSet(i, value, value | bit)) {
+                value = written.get(i);
+            }
+        }
+    }
+}
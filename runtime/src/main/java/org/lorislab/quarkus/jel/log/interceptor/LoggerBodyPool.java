@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The pool of the fixed size body capture buffers.
+ * <p>
+ * The number of the pooled buffers is limited. If the pool is empty the new buffer is created and
+ * it is pooled on release only if there is the free slot, the buffer which is never released is collected
+ * by the garbage collector and does not reduce the pool. The capture is disabled by default, see the {@code org.lorislab.jel.logger.rs.body.size} configuration.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerBodyPool {
+
+    /**
+     * The size of the buffer or {@code 0} if the capture is disabled.
+     */
+    static final int SIZE;
+
+    /**
+     * The free buffers.
+     */
+    private static final AtomicReferenceArray<byte[]> FREE;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        SIZE = Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.rs.body.size", Integer.class).orElse(0));
+        FREE = new AtomicReferenceArray<>(Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.rs.body.pool", Integer.class).orElse(64)));
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerBodyPool() {
+        // empty constructor
+    }
+
+    /**
+     * Borrow the buffer from the pool.
+     *
+     * @return the pooled or the new buffer.
+     */
+    static byte[] acquire() {
+        for (int i = 0; i < FREE.length(); i++) {
+            byte[] tmp = FREE.getAndSet(i, null);
+            if (tmp != null) {
+                return tmp;
+            }
+        }
+        return new byte[SIZE];
+    }
+
+    /**
+     * Gives the buffer back to the pool. The buffer is dropped if the pool is full.
+     *
+     * @param buffer the buffer.
+     */
+    static void release(byte[] buffer) {
+        for (int i = 0; i < FREE.length(); i++) {
+            if (FREE.compareAndSet(i, null, buffer)) {
+                return;
+            }
+        }
+    }
+}
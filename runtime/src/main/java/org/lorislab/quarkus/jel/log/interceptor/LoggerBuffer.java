@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+/**
+ * The thread local reusable string builder.
+ * <p>
+ * The builder is borrowed from the current thread and must be given back with
+ * {@link #release(StringBuilder)}. A nested call on the same thread gets a new builder.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerBuffer {
+
+    /**
+     * The initial capacity of the builder.
+     */
+    private static final int CAPACITY = 256;
+
+    /**
+     * The maximum capacity of the builder kept for the thread.
+     */
+    private static final int MAX_CAPACITY = 16 * 1024;
+
+    /**
+     * The thread local builder holder.
+     */
+    private static final ThreadLocal<StringBuilder[]> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder[1]);
+
+    /**
+     * The default constructor.
+     */
+    private LoggerBuffer() {
+        // empty constructor
+    }
+
+    /**
+     * Borrow the empty builder of the current thread.
+     *
+     * @return the empty builder.
+     */
+    static StringBuilder acquire() {
+        StringBuilder[] holder = BUFFER.get();
+        StringBuilder sb = holder[0];
+        if (sb == null) {
+            return new StringBuilder(CAPACITY);
+        }
+        holder[0] = null;
+        sb.setLength(0);
+        return sb;
+    }
+
+    /**
+     * Gives the builder back to the current thread.
+     *
+     * @param sb the builder.
+     * @return the content of the builder.
+     */
+    static String release(StringBuilder sb) {
+        String result = sb.toString();
+        if (sb.capacity() <= MAX_CAPACITY) {
+            BUFFER.get()[0] = sb;
+        }
+        return result;
+    }
+}
@@ -35,12 +35,14 @@ public interface LoggerBuilder {
      *
      * @return the map of the mapping function for the class.
      */
-    default Map<Class, Function<Object, String>> getClasses() {
+    default Map<Class<?>, Function<Object, String>> getClasses() {
         return new HashMap<>();
     }
 
     /**
      * Gets the map of the mapping function for the assignable class.
+     * The generated map is ordered by the {@link LoggerParam#priority()}, the highest priority first,
+     * the {@link LoggerBuilderService} resolves the mapping once per class in this order.
      *
      * @return the map of the mapping function for the assignable class.
      */
@@ -16,6 +16,8 @@
 
 package org.lorislab.quarkus.jel.log.interceptor;
 
+import org.eclipse.microprofile.config.ConfigProvider;
+
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -25,9 +27,7 @@ import java.io.OutputStream;
 import java.lang.reflect.Array;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.lang.reflect.TypeVariable;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -36,10 +36,30 @@ import java.util.function.Function;
 @Singleton
 public class LoggerBuilderService {
 
+    /**
+     * The basic mapping function.
+     */
+    static final Function<Object, String> BASIC = LoggerBuilderService::basic;
+
+    /**
+     * The array mapping function.
+     */
+    private static final Function<Object, String> ARRAY = LoggerBuilderService::array;
+
+    /**
+     * The map mapping function.
+     */
+    private static final Function<Object, String> MAP = LoggerBuilderService::map;
+
+    /**
+     * The collection mapping function.
+     */
+    private static final Function<Object, String> COLLECTION = LoggerBuilderService::collection;
+
     /**
      * The map of classes.
      */
-    private static final Map<Class, Function<Object, String>> CLASSES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Function<Object, String>> CLASSES = new HashMap<>();
 
     /**
      * The map of assignable classes.
@@ -50,44 +70,72 @@ public class LoggerBuilderService {
      * Static init.
      */
     static {
-        CLASSES.put(Class[].class, LoggerBuilderService::array);
-        CLASSES.put(int[].class, LoggerBuilderService::array);
-        CLASSES.put(double[].class, LoggerBuilderService::array);
-        CLASSES.put(float[].class, LoggerBuilderService::array);
-        CLASSES.put(boolean[].class, LoggerBuilderService::array);
-        CLASSES.put(long[].class, LoggerBuilderService::array);
-        CLASSES.put(byte[].class, LoggerBuilderService::array);
-        CLASSES.put(Integer[].class, LoggerBuilderService::array);
-        CLASSES.put(Double[].class, LoggerBuilderService::array);
-        CLASSES.put(String[].class, LoggerBuilderService::array);
-        CLASSES.put(Boolean[].class, LoggerBuilderService::array);
-        CLASSES.put(Long[].class, LoggerBuilderService::array);
-        CLASSES.put(Byte[].class, LoggerBuilderService::array);
-        CLASSES.put(Class.class, LoggerBuilderService::basic);
-        CLASSES.put(byte.class, LoggerBuilderService::basic);
-        CLASSES.put(int.class, LoggerBuilderService::basic);
-        CLASSES.put(double.class, LoggerBuilderService::basic);
-        CLASSES.put(float.class, LoggerBuilderService::basic);
-        CLASSES.put(boolean.class, LoggerBuilderService::basic);
-        CLASSES.put(long.class, LoggerBuilderService::basic);
-        CLASSES.put(Integer.class, LoggerBuilderService::basic);
-        CLASSES.put(Double.class, LoggerBuilderService::basic);
-        CLASSES.put(String.class, LoggerBuilderService::basic);
-        CLASSES.put(Boolean.class, LoggerBuilderService::basic);
-        CLASSES.put(Long.class, LoggerBuilderService::basic);
-        CLASSES.put(Byte.class, LoggerBuilderService::basic);
+        CLASSES.put(Class.class, BASIC);
+        CLASSES.put(byte.class, BASIC);
+        CLASSES.put(int.class, BASIC);
+        CLASSES.put(double.class, BASIC);
+        CLASSES.put(float.class, BASIC);
+        CLASSES.put(boolean.class, BASIC);
+        CLASSES.put(long.class, BASIC);
+        CLASSES.put(Integer.class, BASIC);
+        CLASSES.put(Double.class, BASIC);
+        CLASSES.put(String.class, BASIC);
+        CLASSES.put(Boolean.class, BASIC);
+        CLASSES.put(Long.class, BASIC);
+        CLASSES.put(Byte.class, BASIC);
         CLASSES.put(Enum.class, LoggerBuilderService::enumeration);
-        CLASSES.put(HashMap.class, LoggerBuilderService::map);
-        CLASSES.put(HashSet.class, LoggerBuilderService::collection);
-        CLASSES.put(ArrayList.class, LoggerBuilderService::collection);
+        CLASSES.put(HashMap.class, MAP);
+        CLASSES.put(HashSet.class, COLLECTION);
+        CLASSES.put(ArrayList.class, COLLECTION);
+        CLASSES.put(Object[].class, ARRAY);
 
-        ASSIGNABLE_FROM.put(Collection.class, LoggerBuilderService::collection);
+        ASSIGNABLE_FROM.put(Collection.class, COLLECTION);
         ASSIGNABLE_FROM.put(InputStream.class, LoggerBuilderService::inputStream);
-        ASSIGNABLE_FROM.put(Map.class, LoggerBuilderService::map);
+        ASSIGNABLE_FROM.put(Map.class, MAP);
         ASSIGNABLE_FROM.put(OutputStream.class, LoggerBuilderService::outputStream);
         ASSIGNABLE_FROM.put(Response.class, LoggerBuilderService::response);
     }
 
+    /**
+     * The number of the rendered elements of the collection, map and array or {@code 0} for only the size.
+     */
+    private static final int ELEMENTS = ConfigProvider.getConfig().getOptionalValue("org.lorislab.jel.logger.elements", Integer.class).orElse(0);
+
+    /**
+     * The maximum nesting level of the rendered elements.
+     */
+    private static final int MAX_DEPTH = 2;
+
+    /**
+     * The nesting level of the rendered elements of the current thread.
+     */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * The simple names of the generic super class type arguments by the class.
+     * The {@code null} value means the type argument is a type variable.
+     */
+    private static final ClassValue<String[]> TYPE_ARGUMENTS = new ClassValue<String[]>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            Type generic = type.getGenericSuperclass();
+            if (generic instanceof ParameterizedType) {
+                Type[] arguments = ((ParameterizedType) generic).getActualTypeArguments();
+                String[] result = new String[arguments.length];
+                for (int i = 0; i < arguments.length; i++) {
+                    result[i] = typeName(arguments[i]);
+                }
+                return result;
+            }
+            return new String[0];
+        }
+    };
+
+    /**
+     * The mapping function by the class of the parameter.
+     */
+    private static volatile ClassValue<Function<Object, String>> formatters = new Formatters(CLASSES, Collections.emptyMap(), ASSIGNABLE_FROM);
+
     /**
      * The generated logger builder.
      */
@@ -99,8 +147,9 @@ public class LoggerBuilderService {
      */
     @PostConstruct
     public void init() {
-        CLASSES.putAll(loggerBuilder.getClasses());
-        ASSIGNABLE_FROM.putAll(loggerBuilder.getAssignableFrom());
+        Map<Class<?>, Function<Object, String>> classes = new HashMap<>(CLASSES);
+        classes.putAll(loggerBuilder.getClasses());
+        formatters = new Formatters(classes, new LinkedHashMap<>(loggerBuilder.getAssignableFrom()), ASSIGNABLE_FROM);
     }
 
     /**
@@ -111,23 +160,31 @@ public class LoggerBuilderService {
      */
     public String getParameterValue(Object parameter) {
         if (parameter != null) {
-            Class<?> clazz = parameter.getClass();
-            Function<Object, String> fn = CLASSES.get(clazz);
-            if (fn != null) {
-                return fn.apply(parameter);
-            }
-
-            for (Map.Entry<Class<?>, Function<Object, String>> entry : ASSIGNABLE_FROM.entrySet()) {
-                if (entry.getKey().isAssignableFrom(clazz)) {
-                    Function<Object, String> fn2 = entry.getValue();
-                    CLASSES.put(clazz, fn2);
-                    return fn2.apply(parameter);
-                }
-            }
+            return formatters.get(parameter.getClass()).apply(parameter);
         }
         return "" + parameter;
     }
 
+    /**
+     * Gets the mapping function for the class.
+     *
+     * @param clazz the class of the parameter.
+     * @return the corresponding mapping function.
+     */
+    public Function<Object, String> getFormatter(Class<?> clazz) {
+        return formatters.get(clazz);
+    }
+
+    /**
+     * Gets the mapping function for the class.
+     *
+     * @param clazz the class of the value.
+     * @return the corresponding mapping function.
+     */
+    static Function<Object, String> getFunction(Class<?> clazz) {
+        return formatters.get(clazz);
+    }
+
     /**
      * Mapping method for the basic.
      *
@@ -135,7 +192,7 @@ public class LoggerBuilderService {
      * @return the corresponding string result for the log.
      */
     public static String basic(Object parameter) {
-        return "" + parameter;
+        return String.valueOf(parameter);
     }
 
     /**
@@ -145,7 +202,40 @@ public class LoggerBuilderService {
      * @return the corresponding string result for the log.
      */
     public static String array(Object parameter) {
-        return parameter.getClass().getSimpleName() + "[" + Array.getLength(parameter) + "]";
+        StringBuilder sb = new StringBuilder();
+        array(sb, parameter, Integer.MAX_VALUE);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the array. The elements are not rendered after the end position.
+     *
+     * @param sb        the string builder.
+     * @param parameter the array.
+     * @param end       the end position of the string builder.
+     */
+    private static void array(StringBuilder sb, Object parameter, int end) {
+        int length = Array.getLength(parameter);
+        sb.append(parameter.getClass().getSimpleName()).append('[').append(length).append(']');
+        if (ELEMENTS <= 0 || length == 0 || !enter()) {
+            return;
+        }
+        try {
+            sb.append('[');
+            int size = Math.min(length, ELEMENTS);
+            for (int i = 0; i < size && sb.length() < end; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendElement(sb, Array.get(parameter, i), end);
+            }
+            if (length > size) {
+                sb.append(",...");
+            }
+            sb.append(']');
+        } finally {
+            exit();
+        }
     }
 
     /**
@@ -198,7 +288,18 @@ public class LoggerBuilderService {
      */
     public static String map(Object parameter) {
         StringBuilder sb = new StringBuilder();
+        map(sb, parameter, Integer.MAX_VALUE);
+        return sb.toString();
+    }
 
+    /**
+     * Appends the map. The entries are not rendered after the end position.
+     *
+     * @param sb        the string builder.
+     * @param parameter the map.
+     * @param end       the end position of the string builder.
+     */
+    private static void map(StringBuilder sb, Object parameter, int end) {
         String name = parameter.getClass().getSimpleName();
         Map<?, ?> tmp = (Map<?, ?>) parameter;
 
@@ -207,35 +308,49 @@ public class LoggerBuilderService {
         } else {
             sb.append(name).append(' ').append(tmp.size()).append(" of [");
 
-            String keyClassName = null;
-            String valueClassName = null;
-
-            if (parameter.getClass().getGenericSuperclass() instanceof ParameterizedType) {
-                ParameterizedType parameterizedType = (ParameterizedType) parameter.getClass().getGenericSuperclass();
-
-                Type keyType = parameterizedType.getActualTypeArguments()[0];
-                if (!(keyType instanceof TypeVariable)) {
-                    keyClassName = keyType.getClass().getSimpleName();
-                }
+            String[] types = TYPE_ARGUMENTS.get(parameter.getClass());
+            String keyClassName = types.length > 0 ? types[0] : null;
+            String valueClassName = types.length > 1 ? types[1] : null;
 
-                Type valueType = parameterizedType.getActualTypeArguments()[1];
-                if (!(valueType instanceof TypeVariable)) {
-                    keyClassName = valueType.getClass().getSimpleName();
-                }
-            }
-
-            Map.Entry<?, ?> item = tmp.entrySet().iterator().next();
+            Iterator<? extends Map.Entry<?, ?>> iterator = tmp.entrySet().iterator();
+            Map.Entry<?, ?> item = iterator.next();
             // get key class name
             if (keyClassName == null && item.getKey() != null) {
                 keyClassName = item.getKey().getClass().getSimpleName();
             }
             // get value class name
-            if (item.getValue() != null) {
+            if (valueClassName == null && item.getValue() != null) {
                 valueClassName = item.getValue().getClass().getSimpleName();
             }
             sb.append(keyClassName).append('+').append(valueClassName).append(']');
+
+            if (ELEMENTS > 0 && enter()) {
+                try {
+                    sb.append('{');
+                    int index = 0;
+                    while (item != null && sb.length() < end) {
+                        if (index > 0) {
+                            sb.append(',');
+                        }
+                        appendElement(sb, item.getKey(), end);
+                        sb.append('=');
+                        appendElement(sb, item.getValue(), end);
+                        index++;
+                        item = null;
+                        if (iterator.hasNext()) {
+                            if (index >= ELEMENTS) {
+                                sb.append(",...");
+                            } else {
+                                item = iterator.next();
+                            }
+                        }
+                    }
+                    sb.append('}');
+                } finally {
+                    exit();
+                }
+            }
         }
-        return sb.toString();
     }
 
     /**
@@ -245,39 +360,245 @@ public class LoggerBuilderService {
      * @return the corresponding string result for the log.
      */
     public static String collection(Object parameter) {
+        StringBuilder sb = new StringBuilder();
+        collection(sb, parameter, Integer.MAX_VALUE);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the collection. The elements are not rendered after the end position.
+     *
+     * @param sb        the string builder.
+     * @param parameter the collection.
+     * @param end       the end position of the string builder.
+     */
+    private static void collection(StringBuilder sb, Object parameter, int end) {
         Collection<?> tmp = (Collection<?>) parameter;
         String name = tmp.getClass().getSimpleName();
 
-        StringBuilder sb = new StringBuilder();
-
         if (tmp.isEmpty()) {
             sb.append("empty ").append(name);
         } else {
             sb.append(name).append('(').append(tmp.size());
-            Class clazz = Object.class;
-            if (parameter.getClass().getGenericSuperclass() instanceof ParameterizedType) {
-                ParameterizedType parameterizedType = (ParameterizedType) parameter.getClass().getGenericSuperclass();
-                Type type = parameterizedType.getActualTypeArguments()[0];
-                clazz = type.getClass();
-
-                // check generic type variable
-                if (type instanceof TypeVariable) {
-
-                    // load first item from the collection
-                    Object obj = tmp.iterator().next();
-                    if (obj != null) {
-                        clazz = obj.getClass();
+            String[] types = TYPE_ARGUMENTS.get(parameter.getClass());
+            String className = types.length > 0 ? types[0] : null;
+            Iterator<?> iterator = tmp.iterator();
+            Object item = iterator.next();
+            if (className == null) {
+                // load first item from the collection
+                className = item != null ? item.getClass().getSimpleName() : Object.class.getSimpleName();
+            }
+            sb.append(className);
+            sb.append(')');
+
+            if (ELEMENTS > 0 && enter()) {
+                try {
+                    sb.append('[');
+                    appendElement(sb, item, end);
+                    int index = 1;
+                    while (iterator.hasNext() && sb.length() < end) {
+                        if (index >= ELEMENTS) {
+                            sb.append(",...");
+                            break;
+                        }
+                        sb.append(',');
+                        appendElement(sb, iterator.next(), end);
+                        index++;
                     }
+                    sb.append(']');
+                } finally {
+                    exit();
                 }
-            } else {
-                Object obj = tmp.iterator().next();
-                if (obj != null) {
-                    clazz = obj.getClass();
+            }
+        }
+    }
+
+    /**
+     * Appends the element of the collection, map, array or object with the parameter mapping function.
+     * The element is limited by the parameter length configuration and by the end position.
+     *
+     * @param sb    the string builder.
+     * @param value the element.
+     * @param end   the end position of the string builder.
+     */
+    static void appendElement(StringBuilder sb, Object value, int end) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        int limit = LoggerConfiguration.PARAMETER_LIMIT;
+        append(sb, formatters.get(value.getClass()), value, limit > 0 ? Math.min(end, sb.length() + limit) : end);
+    }
+
+    /**
+     * Appends the value with the mapping function up to the end position. The built-in collection, map, array
+     * and object mapping functions render directly to the string builder and stop at the end position,
+     * the other mapping functions render the whole value which is then cut.
+     *
+     * @param sb    the string builder.
+     * @param fn    the mapping function of the value.
+     * @param value the not {@code null} value.
+     * @param end   the end position of the string builder.
+     */
+    static void append(StringBuilder sb, Function<Object, String> fn, Object value, int end) {
+        if (sb.length() >= end) {
+            sb.append("...");
+            return;
+        }
+        if (fn == ARRAY) {
+            array(sb, value, end);
+        } else if (fn == MAP) {
+            map(sb, value, end);
+        } else if (fn == COLLECTION) {
+            collection(sb, value, end);
+        } else if (fn == LoggerObjectFormatter.OBJECT) {
+            LoggerObjectFormatter.append(sb, value, end);
+        } else {
+            CharSequence text = fn == BASIC && value instanceof CharSequence ? (CharSequence) value : String.valueOf(fn.apply(value));
+            LoggerConfiguration.append(sb, text, end - sb.length());
+            return;
+        }
+        if (sb.length() > end) {
+            sb.setLength(end);
+            sb.append("...");
+        }
+    }
+
+    /**
+     * Enters the rendering of the elements.
+     *
+     * @return {@code true} if the elements are rendered at this nesting level.
+     */
+    private static boolean enter() {
+        int[] depth = DEPTH.get();
+        if (depth[0] >= MAX_DEPTH) {
+            return false;
+        }
+        if (depth[0] == 0) {
+            LoggerObjectFormatter.reset();
+        }
+        depth[0]++;
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the elements of the collection, map or array are rendered on the current thread.
+     *
+     * @return the nested element flag.
+     */
+    static boolean nested() {
+        return DEPTH.get()[0] > 0;
+    }
+
+    /**
+     * Exits the rendering of the elements.
+     */
+    private static void exit() {
+        DEPTH.get()[0]--;
+    }
+
+    /**
+     * Gets the simple name of the type argument.
+     *
+     * @param type the type argument.
+     * @return the simple name or {@code null} if the type is not resolved.
+     */
+    private static String typeName(Type type) {
+        if (type instanceof Class) {
+            return ((Class<?>) type).getSimpleName();
+        }
+        if (type instanceof ParameterizedType) {
+            return typeName(((ParameterizedType) type).getRawType());
+        }
+        return null;
+    }
+
+    /**
+     * The mapping functions resolved once per class.
+     * <p>
+     * The resolution order is the exact class, array, enumeration, the custom assignable classes
+     * in the priority order of the {@link LoggerBuilder#getAssignableFrom()}, the built-in assignable super classes
+     * and the built-in assignable interfaces.
+     * The {@link LoggerObjectFormatter} or the {@link #BASIC} function is the fallback.
+     * A new instance is created on the init of the service, the values of the previous
+     * instance do not pin the classes.
+     */
+    private static final class Formatters extends ClassValue<Function<Object, String>> {
+
+        /**
+         * The map of classes.
+         */
+        private final Map<Class<?>, Function<Object, String>> classes;
+
+        /**
+         * The ordered map of the custom assignable classes.
+         */
+        private final Map<Class<?>, Function<Object, String>> custom;
+
+        /**
+         * The map of assignable classes.
+         */
+        private final Map<Class<?>, Function<Object, String>> assignableFrom;
+
+        /**
+         * The default constructor.
+         *
+         * @param classes        the map of classes.
+         * @param custom         the ordered map of the custom assignable classes.
+         * @param assignableFrom the map of assignable classes.
+         */
+        Formatters(Map<Class<?>, Function<Object, String>> classes, Map<Class<?>, Function<Object, String>> custom,
+                   Map<Class<?>, Function<Object, String>> assignableFrom) {
+            this.classes = classes;
+            this.custom = custom;
+            this.assignableFrom = assignableFrom;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        protected Function<Object, String> computeValue(Class<?> type) {
+            Function<Object, String> fn = classes.get(type);
+            if (fn != null) {
+                return fn;
+            }
+            if (type.isArray()) {
+                return classes.getOrDefault(Object[].class, ARRAY);
+            }
+            if (Enum.class.isAssignableFrom(type)) {
+                fn = classes.get(Enum.class);
+                if (fn != null) {
+                    return fn;
                 }
             }
-            sb.append(clazz.getSimpleName());
-            sb.append(')');
+            for (Map.Entry<Class<?>, Function<Object, String>> e : custom.entrySet()) {
+                if (e.getKey().isAssignableFrom(type)) {
+                    return e.getValue();
+                }
+            }
+            for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+                fn = assignableFrom.get(clazz);
+                if (fn != null) {
+                    return fn;
+                }
+            }
+            Deque<Class<?>> interfaces = new ArrayDeque<>();
+            Set<Class<?>> visited = new HashSet<>();
+            for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+                interfaces.addAll(Arrays.asList(clazz.getInterfaces()));
+            }
+            while (!interfaces.isEmpty()) {
+                Class<?> item = interfaces.poll();
+                if (visited.add(item)) {
+                    fn = assignableFrom.get(item);
+                    if (fn != null) {
+                        return fn;
+                    }
+                    interfaces.addAll(Arrays.asList(item.getInterfaces()));
+                }
+            }
+            return LoggerObjectFormatter.supports(type) ? LoggerObjectFormatter.OBJECT : BASIC;
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.util.Arrays;
+
+/**
+ * The call tree of the request.
+ * <p>
+ * The tree is started by the {@link RestLogInterceptor} and bound to the request thread.
+ * The {@link LoggerServiceInterceptor} adds the node for each logged call on the same thread.
+ * The depth and the number of nodes are limited, the calls over the limits are only counted.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerCallTree {
+
+    /**
+     * The call tree log enabled flag.
+     */
+    static final boolean LOG;
+
+    /**
+     * The call tree enabled flag. The tree is used by the call tree log and the server timing header.
+     */
+    static final boolean ENABLED;
+
+    /**
+     * The maximum depth of the tree.
+     */
+    private static final int MAX_DEPTH;
+
+    /**
+     * The maximum number of the nodes.
+     */
+    private static final int MAX_NODES;
+
+    /**
+     * The initial number of the nodes.
+     */
+    private static final int CAPACITY = 16;
+
+    /**
+     * The call tree of the current thread.
+     */
+    private static final ThreadLocal<LoggerCallTree[]> CURRENT = ThreadLocal.withInitial(() -> new LoggerCallTree[1]);
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        LOG = config.getOptionalValue("org.lorislab.jel.logger.tree.enabled", Boolean.class).orElse(false);
+        ENABLED = LOG || LoggerServerTiming.ENABLED;
+        MAX_DEPTH = Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.tree.depth", Integer.class).orElse(16));
+        MAX_NODES = Math.max(2, config.getOptionalValue("org.lorislab.jel.logger.tree.nodes", Integer.class).orElse(256));
+    }
+
+    /**
+     * The node names.
+     */
+    private Object[] names = new Object[CAPACITY];
+
+    /**
+     * The parent node indexes.
+     */
+    private int[] parents = new int[CAPACITY];
+
+    /**
+     * The start times of the nodes in nanoseconds.
+     */
+    private long[] starts = new long[CAPACITY];
+
+    /**
+     * The total times of the nodes in nanoseconds.
+     */
+    private long[] totals = new long[CAPACITY];
+
+    /**
+     * The total times of the child nodes in nanoseconds.
+     */
+    private long[] children = new long[CAPACITY];
+
+    /**
+     * The number of the nodes.
+     */
+    private int size;
+
+    /**
+     * The current node index.
+     */
+    private int current;
+
+    /**
+     * The current depth.
+     */
+    private int depth;
+
+    /**
+     * The number of the calls over the limits.
+     */
+    private int dropped;
+
+    /**
+     * The default constructor.
+     *
+     * @param name the name of the root node.
+     */
+    private LoggerCallTree(Object name) {
+        names[0] = name;
+        parents[0] = -1;
+        starts[0] = System.nanoTime();
+        size = 1;
+    }
+
+    /**
+     * Starts the call tree for the current thread.
+     *
+     * @param name the name of the root node.
+     * @return the call tree.
+     */
+    static LoggerCallTree start(Object name) {
+        LoggerCallTree tree = new LoggerCallTree(name);
+        CURRENT.get()[0] = tree;
+        return tree;
+    }
+
+    /**
+     * Gets the call tree holder of the current thread.
+     *
+     * @return the call tree holder of the current thread.
+     */
+    static LoggerCallTree[] current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Enters the call node of the current thread call tree.
+     *
+     * @param name the name of the node.
+     * @return the node index or {@code -1} if the node is not added.
+     */
+    static int enter(Object name) {
+        if (!ENABLED) {
+            return -1;
+        }
+        LoggerCallTree tree = CURRENT.get()[0];
+        if (tree == null) {
+            return -1;
+        }
+        return tree.push(name);
+    }
+
+    /**
+     * Exits the call node of the current thread call tree.
+     *
+     * @param node the node index returned by the {@link #enter(Object)}.
+     */
+    static void exit(int node) {
+        if (!ENABLED) {
+            return;
+        }
+        LoggerCallTree tree = CURRENT.get()[0];
+        if (tree != null) {
+            tree.pop(node);
+        }
+    }
+
+    /**
+     * Finish the call tree and unbind it from the current thread.
+     */
+    void finish() {
+        totals[0] = System.nanoTime() - starts[0];
+        unbind(CURRENT.get());
+    }
+
+    /**
+     * Unbinds the call tree from the holder if the holder still contains this tree.
+     * The call which never reaches the response filter is unbound from the holder of the request thread.
+     *
+     * @param holder the call tree holder.
+     */
+    void unbind(LoggerCallTree[] holder) {
+        if (holder[0] == this) {
+            holder[0] = null;
+        }
+    }
+
+    /**
+     * Adds the node.
+     *
+     * @param name the name of the node.
+     * @return the node index or {@code -1} if the limit is exceeded.
+     */
+    private int push(Object name) {
+        depth++;
+        if (depth > MAX_DEPTH || size >= MAX_NODES) {
+            dropped++;
+            return -1;
+        }
+        if (size == names.length) {
+            int capacity = Math.min(MAX_NODES, size * 2);
+            names = Arrays.copyOf(names, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+            children = Arrays.copyOf(children, capacity);
+        }
+        int node = size++;
+        names[node] = name;
+        parents[node] = current;
+        starts[node] = System.nanoTime();
+        current = node;
+        return node;
+    }
+
+    /**
+     * Closes the node.
+     *
+     * @param node the node index or {@code -1}.
+     */
+    private void pop(int node) {
+        depth--;
+        if (node > 0 && node < size) {
+            long total = System.nanoTime() - starts[node];
+            totals[node] = total;
+            children[parents[node]] += total;
+            current = parents[node];
+        }
+    }
+
+    /**
+     * Gets the total time of the tree.
+     *
+     * @return the total time in nanoseconds.
+     */
+    long getTotal() {
+        return totals[0];
+    }
+
+    /**
+     * Gets the self time of the tree root.
+     *
+     * @return the self time in nanoseconds.
+     */
+    long getSelf() {
+        return Math.max(0, totals[0] - children[0]);
+    }
+
+    /**
+     * Gets the number of the nodes.
+     *
+     * @return the number of the nodes.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the name of the node.
+     *
+     * @param node the node index.
+     * @return the name of the node.
+     */
+    Object getName(int node) {
+        return names[node];
+    }
+
+    /**
+     * Gets the total time of the node.
+     *
+     * @param node the node index.
+     * @return the total time in nanoseconds or {@code 0} if the node is not closed.
+     */
+    long getTotal(int node) {
+        return totals[node];
+    }
+
+    /**
+     * Renders the child nodes of the root with the total and self time.
+     *
+     * @return the rendered call tree.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = LoggerBuffer.acquire();
+        append(sb, 0);
+        if (dropped > 0) {
+            sb.append(" +").append(dropped);
+        }
+        return LoggerBuffer.release(sb);
+    }
+
+    /**
+     * Appends the child nodes of the node.
+     *
+     * @param sb     the string builder.
+     * @param parent the parent node index.
+     */
+    private void append(StringBuilder sb, int parent) {
+        sb.append('{');
+        boolean first = true;
+        for (int i = parent + 1; i < size; i++) {
+            if (parents[i] == parent) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                sb.append(names[i]).append('[')
+                        .append(LoggerConfiguration.formatTime(totals[i])).append(LoggerConfiguration.TIME_UNIT_NAME).append('/')
+                        .append(LoggerConfiguration.formatTime(Math.max(0, totals[i] - children[i]))).append(LoggerConfiguration.TIME_UNIT_NAME).append(']');
+                if (hasChildren(i)) {
+                    append(sb, i);
+                }
+            }
+        }
+        sb.append('}');
+    }
+
+    /**
+     * Returns {@code true} if the node has the child nodes.
+     *
+     * @param node the node index.
+     * @return the child nodes flag.
+     */
+    private boolean hasChildren(int node) {
+        return node + 1 < size && parents[node + 1] == node;
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The rolling window statistics of the rest client calls.
+ * <p>
+ * The calls are counted per host and per host and path template in the time slots of the window.
+ * The slot of the elapsed period is replaced on the first call of the new period, the counters
+ * are not locked. The path template is resolved by the {@link LoggerResource#client(Object, java.net.URI)}. The statistics of all hosts
+ * are periodically logged as one summary record. The statistics are disabled by default,
+ * see the {@code org.lorislab.jel.logger.rs.client.stats.enabled} configuration.
+ *
+ * @author Andrej Petras
+ */
+public final class LoggerClientStatistics {
+
+    /**
+     * The statistics enabled flag.
+     */
+    static final boolean ENABLED;
+
+    /**
+     * The length of the slot in nanoseconds.
+     */
+    private static final long SLOT;
+
+    /**
+     * The number of the slots of the window.
+     */
+    private static final int SLOTS;
+
+    /**
+     * The maximum number of the path templates.
+     */
+    private static final int MAX_PATHS;
+
+    /**
+     * The summary period in nanoseconds or {@code 0} if the summary is disabled.
+     */
+    private static final long PERIOD;
+
+    /**
+     * The summary message.
+     */
+    private static final LoggerTemplate messageSummary;
+
+    /**
+     * The logger of the summary.
+     */
+    private static final Logger log = LoggerEvents.logger(LoggerFactory.getLogger(RestClientLogInterceptor.class));
+
+    /**
+     * The windows by the host.
+     */
+    private static final ConcurrentMap<String, Window> HOSTS = new ConcurrentHashMap<>();
+
+    /**
+     * The windows by the host, the HTTP method and the path template.
+     */
+    private static final ConcurrentMap<String, Window> PATHS = new ConcurrentHashMap<>();
+
+    /**
+     * The number of the created path template windows.
+     */
+    private static final AtomicInteger PATH_COUNT = new AtomicInteger();
+
+    /**
+     * The summary task.
+     */
+    private static volatile Future<?> summary;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        ENABLED = config.getOptionalValue("org.lorislab.jel.logger.rs.client.stats.enabled", Boolean.class).orElse(false);
+        long window = TimeUnit.SECONDS.toNanos(Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.rs.client.stats.window", Long.class).orElse(60L)));
+        SLOTS = Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.rs.client.stats.slots", Integer.class).orElse(6));
+        SLOT = Math.max(1, window / SLOTS);
+        MAX_PATHS = Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.rs.client.stats.paths", Integer.class).orElse(256));
+        PERIOD = TimeUnit.SECONDS.toNanos(Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.rs.client.stats.summary", Long.class).orElse(60L)));
+        messageSummary = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.client.stats.message", String.class).orElse("rest client statistics [{0}" + LoggerConfiguration.TIME_UNIT_NAME + "] {1}."));
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerClientStatistics() {
+        // empty constructor
+    }
+
+    /**
+     * Returns {@code true} if the statistics are enabled.
+     *
+     * @return the statistics enabled flag.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Records the finished call.
+     *
+     * @param host   the host and the port.
+     * @param key    the host, the HTTP method and the path template.
+     * @param nanos  the duration in nanoseconds.
+     * @param failed the failed call flag.
+     */
+    static void record(String host, String key, long nanos, boolean failed) {
+        long epoch = epoch();
+        window(HOSTS, host).record(epoch, nanos, failed);
+
+        Window window = PATHS.get(key);
+        if (window == null && PATH_COUNT.get() < MAX_PATHS) {
+            window = PATHS.computeIfAbsent(key, k -> PATH_COUNT.incrementAndGet() <= MAX_PATHS ? new Window() : null);
+            schedule();
+        }
+        if (window != null) {
+            window.record(epoch, nanos, failed);
+        }
+    }
+
+    /**
+     * Gets the epoch of the current slot.
+     *
+     * @return the epoch of the current slot.
+     */
+    private static long epoch() {
+        return Math.floorDiv(System.nanoTime(), SLOT);
+    }
+
+    /**
+     * Gets the statistics of the hosts.
+     *
+     * @return the statistics of the current window by the host.
+     */
+    public static Map<String, Statistics> getHosts() {
+        return statistics(HOSTS);
+    }
+
+    /**
+     * Gets the statistics of the path templates.
+     *
+     * @return the statistics of the current window by the host, the HTTP method and the path template.
+     */
+    public static Map<String, Statistics> getPaths() {
+        return statistics(PATHS);
+    }
+
+    /**
+     * Gets the window of the key. The summary task is scheduled if it is not running.
+     *
+     * @param map the windows.
+     * @param key the key.
+     * @return the window.
+     */
+    private static Window window(ConcurrentMap<String, Window> map, String key) {
+        Window window = map.get(key);
+        if (window == null) {
+            window = map.computeIfAbsent(key, k -> new Window());
+        }
+        Future<?> tmp = summary;
+        if (PERIOD > 0 && (tmp == null || tmp.isDone())) {
+            schedule();
+        }
+        return window;
+    }
+
+    /**
+     * Creates the statistics of the current window.
+     *
+     * @param map the windows.
+     * @return the statistics by the key.
+     */
+    private static Map<String, Statistics> statistics(ConcurrentMap<String, Window> map) {
+        long epoch = epoch();
+        Map<String, Statistics> result = new TreeMap<>();
+        map.forEach((k, v) -> {
+            Statistics tmp = v.statistics(epoch);
+            if (tmp.getCount() > 0) {
+                result.put(k, tmp);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Schedules the summary task if it is not running.
+     */
+    private static synchronized void schedule() {
+        if (PERIOD > 0 && (summary == null || summary.isDone())) {
+            summary = LoggerScheduler.scheduleAtFixedRate(LoggerClientStatistics::summary, PERIOD);
+        }
+    }
+
+    /**
+     * Logs the summary record of the hosts and the path templates.
+     */
+    private static void summary() {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        Map<String, Statistics> hosts = getHosts();
+        if (hosts.isEmpty()) {
+            return;
+        }
+        Map<String, Statistics> paths = getPaths();
+        long window = TimeUnit.NANOSECONDS.toSeconds(SLOT * SLOTS);
+        if (LoggerJson.ENABLED) {
+            LoggerOutput.info(log, LoggerJson.statistics(window, hosts, paths));
+        } else {
+            LoggerOutput.info(log, LoggerConfiguration.msg(messageSummary, () -> new Object[]{window, render(hosts, paths)}));
+        }
+    }
+
+    /**
+     * Renders the statistics of the summary record.
+     *
+     * @param hosts the statistics of the hosts.
+     * @param paths the statistics of the path templates.
+     * @return the rendered statistics.
+     */
+    private static String render(Map<String, Statistics> hosts, Map<String, Statistics> paths) {
+        StringBuilder sb = LoggerBuffer.acquire();
+        append(sb, hosts);
+        if (!paths.isEmpty()) {
+            sb.append(' ');
+            append(sb, paths);
+        }
+        return LoggerBuffer.release(sb);
+    }
+
+    /**
+     * Appends the statistics.
+     *
+     * @param sb  the string builder.
+     * @param map the statistics by the key.
+     */
+    private static void append(StringBuilder sb, Map<String, Statistics> map) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Statistics> e : map.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            Statistics item = e.getValue();
+            LatencyHistogram.Snapshot latency = item.getLatency();
+            sb.append(e.getKey()).append('[').append(item.getCount()).append(" calls,")
+                    .append(item.getErrors()).append(" errors,p50 ")
+                    .append(LoggerConfiguration.formatTime(latency.getP50())).append(LoggerConfiguration.TIME_UNIT_NAME).append(",p99 ")
+                    .append(LoggerConfiguration.formatTime(latency.getP99())).append(LoggerConfiguration.TIME_UNIT_NAME).append(",max ")
+                    .append(LoggerConfiguration.formatTime(latency.getMax())).append(LoggerConfiguration.TIME_UNIT_NAME).append(']');
+        }
+        sb.append('}');
+    }
+
+    /**
+     * The statistics of the window.
+     */
+    public static final class Statistics {
+
+        /**
+         * The number of the failed calls.
+         */
+        private final long errors;
+
+        /**
+         * The latency snapshot.
+         */
+        private final LatencyHistogram.Snapshot latency;
+
+        /**
+         * The default constructor.
+         *
+         * @param errors  the number of the failed calls.
+         * @param latency the latency snapshot.
+         */
+        Statistics(long errors, LatencyHistogram.Snapshot latency) {
+            this.errors = errors;
+            this.latency = latency;
+        }
+
+        /**
+         * Gets the number of the calls.
+         *
+         * @return the number of the calls.
+         */
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        /**
+         * Gets the number of the failed calls.
+         *
+         * @return the number of the failed calls.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Gets the error rate.
+         *
+         * @return the ratio of the failed calls to all calls.
+         */
+        public double getErrorRate() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        /**
+         * Gets the latency snapshot with the percentiles.
+         *
+         * @return the latency snapshot.
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+    }
+
+    /**
+     * The rolling window of the time slots.
+     */
+    private static final class Window {
+
+        /**
+         * The slots by the epoch modulo the number of the slots.
+         */
+        private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(SLOTS);
+
+        /**
+         * Records the call in the slot of the epoch. If the slot was already reused for the newer epoch
+         * by the other thread the call is recorded in the slot of the current epoch.
+         *
+         * @param epoch  the slot epoch.
+         * @param nanos  the duration in nanoseconds.
+         * @param failed the failed call flag.
+         */
+        void record(long epoch, long nanos, boolean failed) {
+            while (true) {
+                int index = (int) Math.floorMod(epoch, (long) SLOTS);
+                Slot slot = slots.get(index);
+                if (slot == null || slot.epoch < epoch) {
+                    slots.compareAndSet(index, slot, new Slot(epoch));
+                } else if (slot.epoch > epoch) {
+                    epoch = epoch();
+                } else {
+                    slot.record(nanos, failed);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Merges the slots of the window ending with the epoch.
+         *
+         * @param epoch the current slot epoch.
+         * @return the statistics.
+         */
+        Statistics statistics(long epoch) {
+            long[] buckets = new long[LatencyHistogram.BUCKETS];
+            long sum = 0;
+            long max = 0;
+            long errors = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                Slot slot = slots.get(i);
+                if (slot != null && slot.epoch > epoch - SLOTS && slot.epoch <= epoch) {
+                    for (int b = 0; b < buckets.length; b++) {
+                        buckets[b] += slot.buckets.get(b);
+                    }
+                    sum += slot.sum.sum();
+                    max = Math.max(max, slot.max.get());
+                    errors += slot.errors.sum();
+                }
+            }
+            return new Statistics(errors, new LatencyHistogram.Snapshot(buckets, sum, max));
+        }
+    }
+
+    /**
+     * The counters of the time slot.
+     */
+    private static final class Slot {
+
+        /**
+         * The slot epoch.
+         */
+        private final long epoch;
+
+        /**
+         * The latency bucket counts.
+         */
+        private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.BUCKETS);
+
+        /**
+         * The sum of the durations in nanoseconds.
+         */
+        private final LongAdder sum = new LongAdder();
+
+        /**
+         * The maximum duration in nanoseconds.
+         */
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * The number of the failed calls.
+         */
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * The default constructor.
+         *
+         * @param epoch the slot epoch.
+         */
+        Slot(long epoch) {
+            this.epoch = epoch;
+        }
+
+        /**
+         * Records the call.
+         *
+         * @param nanos  the duration in nanoseconds.
+         * @param failed the failed call flag.
+         */
+        void record(long nanos, boolean failed) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(LatencyHistogram.index(value / 1000));
+            sum.add(value);
+            max.accumulate(value);
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+}
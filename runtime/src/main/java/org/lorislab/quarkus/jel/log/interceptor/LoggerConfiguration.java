@@ -18,7 +18,8 @@ package org.lorislab.quarkus.jel.log.interceptor;
 import org.eclipse.microprofile.config.Config;
 import org.eclipse.microprofile.config.ConfigProvider;
 
-import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * The logger configuration.
@@ -32,33 +33,93 @@ class LoggerConfiguration {
      */
     static final String RESULT_VOID;
 
+    /**
+     * The single record mode flag. Only the finish record of the call is logged.
+     */
+    static final boolean SINGLE;
+
+    /**
+     * The deadline in nanoseconds after which the running record of the call is logged
+     * in the single record mode or {@code -1} if disabled.
+     */
+    static final long SINGLE_DEADLINE;
+
+    /**
+     * The number of nanoseconds in the time unit.
+     */
+    private static final long TIME_UNIT;
+
+    /**
+     * The name of the time unit.
+     */
+    static final String TIME_UNIT_NAME;
+
+    /**
+     * The number of the fraction digits of the time.
+     */
+    private static final int TIME_PRECISION;
+
+    /**
+     * The time fraction scale.
+     */
+    private static final long TIME_SCALE;
+
+    /**
+     * The maximum length of the rendered parameter or {@code 0} for unlimited.
+     */
+    static final int PARAMETER_LIMIT;
+
+    /**
+     * The maximum length of the rendered list of parameters or {@code 0} for unlimited.
+     */
+    static final int PARAMETERS_LIMIT;
+
     /**
      * The message start.
      */
-    private static MessageFormat messageStart;
+    private static final LoggerTemplate messageStart;
 
     /**
      * The message succeed.
      */
-    private static MessageFormat messageSucceed;
+    private static final LoggerTemplate messageSucceed;
 
     /**
      * The message future start.
      */
-    private static MessageFormat messageFutureStart;
+    private static final LoggerTemplate messageFutureStart;
 
     /**
      * The message failed.
      */
-    private static MessageFormat messageFailed;
+    private static final LoggerTemplate messageFailed;
+
+    /**
+     * The message of the call running after the deadline.
+     */
+    private static final LoggerTemplate messageRunning;
 
     static {
         Config config = ConfigProvider.getConfig();
         RESULT_VOID = config.getOptionalValue("org.lorislab.jel.logger.result.void", String.class).orElse("void");
-        messageStart = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.start", String.class).orElse("{0}({1}) started."));
-        messageSucceed = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.succeed", String.class).orElse("{0}({1}):{2} [{3}s] succeed."));
-        messageFailed = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.failed", String.class).orElse("{0}({1}):{2} [{3}s] failed."));
-        messageFutureStart = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.futureStart", String.class).orElse("{0}({1}) future started."));
+        SINGLE = config.getOptionalValue("org.lorislab.jel.logger.single", Boolean.class).orElse(false);
+        long deadline = config.getOptionalValue("org.lorislab.jel.logger.single.deadline", Long.class).orElse(-1L);
+        SINGLE_DEADLINE = deadline < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(deadline);
+        TIME_UNIT_NAME = config.getOptionalValue("org.lorislab.jel.logger.time.unit", String.class).orElse("s");
+        TIME_UNIT = timeUnit(TIME_UNIT_NAME);
+        TIME_PRECISION = Math.max(0, Math.min(9, config.getOptionalValue("org.lorislab.jel.logger.time.precision", Integer.class).orElse(3)));
+        long scale = 1;
+        for (int i = 0; i < TIME_PRECISION; i++) {
+            scale = scale * 10;
+        }
+        TIME_SCALE = scale;
+        PARAMETER_LIMIT = Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.parameter.limit", Integer.class).orElse(0));
+        PARAMETERS_LIMIT = Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.parameters.limit", Integer.class).orElse(0));
+        messageStart = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.start", String.class).orElse("{0}({1}) started."));
+        messageSucceed = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.succeed", String.class).orElse("{0}({1}):{2} [{3}" + TIME_UNIT_NAME + "] succeed."));
+        messageFailed = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.failed", String.class).orElse("{0}({1}):{2} [{3}" + TIME_UNIT_NAME + "] failed."));
+        messageFutureStart = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.futureStart", String.class).orElse("{0}({1}) future started."));
+        messageRunning = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.running", String.class).orElse("{0}(...) running [{1}" + TIME_UNIT_NAME + "]."));
     }
 
     /**
@@ -68,58 +129,168 @@ class LoggerConfiguration {
         // empty constructor
     }
 
+    /**
+     * Gets the number of nanoseconds for the time unit.
+     *
+     * @param unit the time unit {@code s}, {@code ms}, {@code us} or {@code ns}.
+     * @return the number of nanoseconds.
+     */
+    private static long timeUnit(String unit) {
+        switch (unit) {
+            case "ns":
+                return 1L;
+            case "us":
+                return 1_000L;
+            case "ms":
+                return 1_000_000L;
+            case "s":
+                return 1_000_000_000L;
+            default:
+                throw new IllegalArgumentException("Not supported time unit " + unit);
+        }
+    }
+
+    /**
+     * Formats the duration in the configured unit and precision.
+     *
+     * @param nanos the duration in nanoseconds.
+     * @return the formatted duration.
+     */
+    static String formatTime(long nanos) {
+        long value = nanos / TIME_UNIT;
+        long fraction = ((nanos % TIME_UNIT) * TIME_SCALE + TIME_UNIT / 2) / TIME_UNIT;
+        if (fraction >= TIME_SCALE) {
+            value++;
+            fraction = 0;
+        }
+        StringBuilder sb = new StringBuilder(16).append(value);
+        if (TIME_PRECISION > 0) {
+            sb.append('.');
+            String tmp = Long.toString(fraction);
+            for (int i = tmp.length(); i < TIME_PRECISION; i++) {
+                sb.append('0');
+            }
+            sb.append(tmp);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Appends the value limited by the length. The cut value ends with the marker of the number of cut characters.
+     *
+     * @param sb    the string builder.
+     * @param value the value.
+     * @param limit the maximum number of characters or {@code 0} for unlimited.
+     * @return the string builder.
+     */
+    static StringBuilder append(StringBuilder sb, CharSequence value, int limit) {
+        int length = value.length();
+        if (limit <= 0 || length <= limit) {
+            return sb.append(value);
+        }
+        return sb.append(value, 0, limit).append("...(+").append(length - limit).append(')');
+    }
+
     /**
      * The message failed method.
      *
+     * @param ano     the logger method.
      * @param context the interceptor context.
      * @return the log message.
      */
-    static Object msgFailed(InterceptorContext context) {
-        return msg(messageFailed, new Object[]{context.method, context.parameters, context.result, context.time});
+    static Object msgFailed(LoggerMethod ano, InterceptorContext context) {
+        if (LoggerJson.ENABLED) {
+            return LoggerJson.service(LoggerJson.FINISHED, ano, context, LoggerEvents.FAILED);
+        }
+        return msg(messageFailed, () -> new Object[]{context.method, context.getParameters(), context.getResult(), context.getTime()});
     }
 
     /**
      * The message succeed method.
      *
+     * @param ano     the logger method.
      * @param context the interceptor context.
      * @return the log message.
      */
-    static Object msgSucceed(InterceptorContext context) {
-        return msg(messageSucceed, new Object[]{context.method, context.parameters, context.result, context.time});
+    static Object msgSucceed(LoggerMethod ano, InterceptorContext context) {
+        if (LoggerJson.ENABLED) {
+            return LoggerJson.service(LoggerJson.FINISHED, ano, context, LoggerEvents.SUCCEED);
+        }
+        return msg(messageSucceed, () -> new Object[]{context.method, context.getParameters(), context.getResult(), context.getTime()});
     }
 
     /**
      * The message future start method.
      *
+     * @param ano     the logger method.
      * @param context the interceptor context.
      * @return the log message.
      */
-    static Object msgFutureStart(InterceptorContext context) {
-        return msg(messageFutureStart, new Object[]{context.method, context.parameters, context.result, context.time});
+    static Object msgFutureStart(LoggerMethod ano, InterceptorContext context) {
+        if (LoggerJson.ENABLED) {
+            return LoggerJson.service(LoggerJson.FUTURE_STARTED, ano, context, null);
+        }
+        return msg(messageFutureStart, () -> new Object[]{context.method, context.getParameters(), context.getResult(), context.getTime()});
     }
 
     /**
      * The message start method.
      *
+     * @param ano     the logger method.
      * @param context the interceptor context.
      * @return the log message.
      */
-    static Object msgStart(InterceptorContext context) {
-        return msg(messageStart, new Object[]{context.method, context.parameters});
+    static Object msgStart(LoggerMethod ano, InterceptorContext context) {
+        if (LoggerJson.ENABLED) {
+            return LoggerJson.service(LoggerJson.STARTED, ano, context, null);
+        }
+        return msg(messageStart, () -> new Object[]{context.method, context.getParameters()});
+    }
+
+    /**
+     * The message of the call running after the deadline.
+     * The message does not contain the parameters, the parameters of the running call may be changed.
+     *
+     * @param ano     the logger method.
+     * @param context the interceptor context of the running call.
+     * @return the log message.
+     */
+    static Object msgRunning(LoggerMethod ano, InterceptorContext context) {
+        if (LoggerJson.ENABLED) {
+            return LoggerJson.service(LoggerJson.RUNNING, ano, context, null);
+        }
+        return msg(messageRunning, () -> new Object[]{context.method, formatTime(context.getDuration())});
     }
 
     /**
      * Log message method.
      *
-     * @param mf         the message formatter.
+     * @param template   the message template.
      * @param parameters the log entry parameters.
      * @return the log parameter.
      */
-    public static Object msg(MessageFormat mf, Object[] parameters) {
+    public static Object msg(LoggerTemplate template, Object[] parameters) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return template.format(parameters);
+            }
+        };
+    }
+
+    /**
+     * Log message method with the deferred parameters.
+     * The parameters are created only when the log message is rendered.
+     *
+     * @param template   the message template.
+     * @param parameters the log entry parameters supplier.
+     * @return the log parameter.
+     */
+    public static Object msg(LoggerTemplate template, Supplier<Object[]> parameters) {
         return new Object() {
             @Override
             public String toString() {
-                return mf.format(parameters, new StringBuffer(), null).toString();
+                return template.format(parameters.get());
             }
         };
     }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The registry of the running service calls with the deadline in the single record mode.
+ * <p>
+ * The call is registered on the start and removed on the close of the context. The periodic sweep
+ * logs the running record of the call running longer than the deadline, see the
+ * {@code org.lorislab.jel.logger.single.deadline} configuration. The sweep does not render the parameters
+ * of the running call, the parameters may be changed by the call, they are logged by the finish record.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerDeadline {
+
+    /**
+     * The minimum sweep period in nanoseconds.
+     */
+    private static final long MIN_PERIOD = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * The running calls with the corresponding logger method and logger.
+     */
+    private static final Map<InterceptorContext, Call> CALLS = new ConcurrentHashMap<>();
+
+    /**
+     * The sweep task or {@code null} if the task was not scheduled.
+     */
+    private static volatile Future<?> sweep;
+
+    /**
+     * The default constructor.
+     */
+    private LoggerDeadline() {
+        // empty constructor
+    }
+
+    /**
+     * Registers the running call.
+     *
+     * @param context the interceptor context.
+     * @param ano     the logger method.
+     * @param logger  the logger.
+     */
+    static void add(InterceptorContext context, LoggerMethod ano, Logger logger) {
+        CALLS.put(context, new Call(ano, logger));
+        context.setDeadline(true);
+        Future<?> tmp = sweep;
+        if (tmp == null || tmp.isDone()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Removes the closed call.
+     *
+     * @param context the interceptor context.
+     */
+    static void remove(InterceptorContext context) {
+        CALLS.remove(context);
+    }
+
+    /**
+     * Schedules the sweep task if it is not running. The period is the quarter of the deadline,
+     * at least {@link #MIN_PERIOD}. The task is scheduled again after the restart of the scheduler.
+     */
+    private static synchronized void schedule() {
+        if (sweep == null || sweep.isDone()) {
+            sweep = LoggerScheduler.scheduleAtFixedRate(LoggerDeadline::sweep, Math.max(MIN_PERIOD, LoggerConfiguration.SINGLE_DEADLINE / 4));
+        }
+    }
+
+    /**
+     * Logs the running record of the calls running longer than the deadline.
+     */
+    private static void sweep() {
+        for (Map.Entry<InterceptorContext, Call> e : CALLS.entrySet()) {
+            InterceptorContext context = e.getKey();
+            if (context.getEndTime() != 0) {
+                CALLS.remove(context);
+            } else if (context.getDuration() >= LoggerConfiguration.SINGLE_DEADLINE && CALLS.remove(context, e.getValue())) {
+                try {
+                    Call call = e.getValue();
+                    LoggerOutput.info(call.logger, LoggerConfiguration.msgRunning(call.ano, context));
+                } catch (Throwable ex) {
+                    // the sweep task must not stop
+                }
+            }
+        }
+    }
+
+    /**
+     * The logger of the running call.
+     */
+    private static final class Call {
+
+        /**
+         * The logger method.
+         */
+        private final LoggerMethod ano;
+
+        /**
+         * The logger.
+         */
+        private final Logger logger;
+
+        /**
+         * The default constructor.
+         *
+         * @param ano    the logger method.
+         * @param logger the logger.
+         */
+        Call(LoggerMethod ano, Logger logger) {
+            this.ano = ano;
+            this.logger = logger;
+        }
+    }
+}
@@ -12,5 +12,6 @@ public class LoggerDynamicFeature implements DynamicFeature {
     public void configure(ResourceInfo resourceInfo, FeatureContext context) {
         context.register(RestLogInterceptor.class);
         context.register(RestClientLogInterceptor.class);
+        context.register(RestEntityLogInterceptor.class);
     }
 }
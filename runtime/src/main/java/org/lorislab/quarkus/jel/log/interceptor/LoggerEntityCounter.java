@@ -0,0 +1,384 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The entity byte counter and the body capture of the request.
+ * <p>
+ * The entity streams are wrapped by the {@link RestEntityLogInterceptor} in the counting streams,
+ * the bytes are neither copied nor buffered. The counter is disabled by default,
+ * see the {@code org.lorislab.jel.logger.rs.entity} configuration. The optional body capture
+ * copies the prefix of the entity into the buffer of the {@link LoggerBodyPool} and
+ * the prefix is decoded with the charset of the entity media type only for the logged record.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerEntityCounter {
+
+    /**
+     * The counter interceptor property.
+     */
+    static final String PROPERTY = "jel-log-entity";
+
+    /**
+     * The entity bytes count enabled flag.
+     */
+    static final boolean COUNT = ConfigProvider.getConfig().getOptionalValue("org.lorislab.jel.logger.rs.entity", Boolean.class).orElse(false);
+
+    /**
+     * The entity counter enabled flag. The counter is created for the bytes count or the body capture.
+     */
+    static final boolean ENABLED = COUNT || LoggerBodyPool.SIZE > 0;
+
+    /**
+     * The number of the read bytes.
+     */
+    private volatile long received;
+
+    /**
+     * The number of the written bytes.
+     */
+    private volatile long sent;
+
+    /**
+     * The time of the entity reading and writing in nanoseconds.
+     */
+    private volatile long time;
+
+    /**
+     * The action executed after the next entity reading or writing.
+     */
+    private volatile Runnable pending;
+
+    /**
+     * The entity reading flag.
+     */
+    private volatile boolean reading;
+
+    /**
+     * The captured prefix of the read entity.
+     */
+    private final Body receivedBody = new Body();
+
+    /**
+     * The captured prefix of the written entity.
+     */
+    private final Body sentBody = new Body();
+
+    /**
+     * Gets the number of the read bytes.
+     *
+     * @return the number of the read bytes.
+     */
+    long getReceived() {
+        return received;
+    }
+
+    /**
+     * Gets the number of the written bytes.
+     *
+     * @return the number of the written bytes.
+     */
+    long getSent() {
+        return sent;
+    }
+
+    /**
+     * Gets the throughput of the entity reading and writing.
+     *
+     * @return the number of bytes per second.
+     */
+    long getThroughput() {
+        long tmp = time;
+        return tmp <= 0 ? 0 : (long) ((received + sent) * 1_000_000_000d / tmp);
+    }
+
+    /**
+     * Adds the time of the entity reading or writing.
+     *
+     * @param nanos the time in nanoseconds.
+     */
+    void addTime(long nanos) {
+        time += nanos;
+    }
+
+    /**
+     * Sets the action executed after the next entity reading or writing.
+     *
+     * @param action the action.
+     */
+    void onComplete(Runnable action) {
+        pending = action;
+    }
+
+    /**
+     * Executes the pending action.
+     */
+    void complete() {
+        reading = false;
+        Runnable tmp = pending;
+        if (tmp != null) {
+            pending = null;
+            tmp.run();
+        }
+    }
+
+    /**
+     * Gets the captured prefix of the read entity.
+     *
+     * @return the decoded prefix of the read entity or {@code null} if nothing was captured.
+     */
+    String getReceivedBody() {
+        return receivedBody.decode(received);
+    }
+
+    /**
+     * Gets the captured prefix of the written entity.
+     *
+     * @return the decoded prefix of the written entity or {@code null} if nothing was captured.
+     */
+    String getSentBody() {
+        return sentBody.decode(sent);
+    }
+
+    /**
+     * Gives the capture buffers back to the pool. The entity is not captured after the release.
+     */
+    void release() {
+        receivedBody.release();
+        sentBody.release();
+    }
+
+    /**
+     * Gives the capture buffer of the written entity back to the pool.
+     */
+    void releaseSent() {
+        sentBody.release();
+    }
+
+    /**
+     * Wraps the input stream.
+     *
+     * @param in      the input stream.
+     * @param charset the charset of the entity or {@code null}.
+     * @return the counting input stream.
+     */
+    InputStream input(InputStream in, String charset) {
+        reading = true;
+        receivedBody.charset = charset;
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    received++;
+                    receivedBody.write(b);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    received += n;
+                    receivedBody.write(b, off, n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long tmp = super.skip(n);
+                if (tmp > 0) {
+                    received += tmp;
+                }
+                return tmp;
+            }
+        };
+    }
+
+    /**
+     * Wraps the entity stream of the response which may be closed without being read.
+     * The pending action is executed when the stream is closed outside of the entity reading.
+     *
+     * @param in the entity stream.
+     * @return the entity stream executing the pending action on close.
+     */
+    InputStream closing(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!reading) {
+                        complete();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps the output stream.
+     *
+     * @param out     the output stream.
+     * @param charset the charset of the entity or {@code null}.
+     * @return the counting output stream.
+     */
+    OutputStream output(OutputStream out, String charset) {
+        sentBody.charset = charset;
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                sent++;
+                sentBody.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                sent += len;
+                sentBody.write(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * The captured prefix of the entity.
+     */
+    private static final class Body {
+
+        /**
+         * The pooled buffer.
+         */
+        private byte[] data;
+
+        /**
+         * The number of the captured bytes.
+         */
+        private int length;
+
+        /**
+         * The capture skipped flag.
+         */
+        private boolean skipped;
+
+        /**
+         * The charset name of the entity or {@code null}.
+         */
+        private String charset;
+
+        /**
+         * Captures the byte.
+         *
+         * @param b the byte.
+         */
+        void write(int b) {
+            if (buffer()) {
+                data[length++] = (byte) b;
+            }
+        }
+
+        /**
+         * Captures the bytes.
+         *
+         * @param b   the bytes.
+         * @param off the offset.
+         * @param len the number of bytes.
+         */
+        void write(byte[] b, int off, int len) {
+            if (buffer()) {
+                int size = Math.min(len, data.length - length);
+                System.arraycopy(b, off, data, length, size);
+                length += size;
+            }
+        }
+
+        /**
+         * Borrow the buffer on the first write.
+         *
+         * @return {@code true} if the buffer has free space.
+         */
+        private boolean buffer() {
+            if (LoggerBodyPool.SIZE == 0 || skipped) {
+                return false;
+            }
+            if (data == null) {
+                data = LoggerBodyPool.acquire();
+            }
+            return length < data.length;
+        }
+
+        /**
+         * Decodes the captured prefix.
+         *
+         * @param total the total number of bytes of the entity.
+         * @return the decoded prefix or {@code null} if nothing was captured.
+         */
+        String decode(long total) {
+            if (data == null) {
+                return null;
+            }
+            String result = new String(data, 0, length, charset());
+            if (total > length) {
+                result = result + "...(+" + (total - length) + ")";
+            }
+            return result;
+        }
+
+        /**
+         * Gets the charset of the entity.
+         *
+         * @return the charset of the entity or {@code UTF-8} if the charset is not set or not supported.
+         */
+        private Charset charset() {
+            if (charset != null) {
+                try {
+                    return Charset.forName(charset);
+                } catch (IllegalArgumentException ex) {
+                    // unsupported charset of the entity
+                }
+            }
+            return StandardCharsets.UTF_8;
+        }
+
+        /**
+         * Gives the buffer back to the pool.
+         */
+        void release() {
+            skipped = true;
+            byte[] tmp = data;
+            if (tmp != null) {
+                data = null;
+                length = 0;
+                LoggerBodyPool.release(tmp);
+            }
+        }
+    }
+}
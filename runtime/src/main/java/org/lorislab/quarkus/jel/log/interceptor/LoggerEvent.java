@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The flight recorder event of the intercepted call.
+ *
+ * @author Andrej Petras
+ */
+@Name("org.lorislab.jel.Invocation")
+@Label("Invocation")
+@Category({"JEL", "Log"})
+@Description("The intercepted service, rest resource or rest client call.")
+@StackTrace(false)
+final class LoggerEvent extends Event {
+
+    /**
+     * The type of the call.
+     */
+    @Label("Type")
+    String type;
+
+    /**
+     * The class name.
+     */
+    @Label("Class")
+    String className;
+
+    /**
+     * The method.
+     */
+    @Label("Method")
+    String method;
+
+    /**
+     * The outcome of the call.
+     */
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * The HTTP status or {@code 0} for the service call.
+     */
+    @Label("Status")
+    int status;
+}
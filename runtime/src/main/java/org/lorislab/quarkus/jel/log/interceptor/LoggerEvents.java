@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.helpers.NOPLogger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The flight recorder output of the intercepted calls.
+ * <p>
+ * The events are enabled by the {@code org.lorislab.jel.logger.jfr.enabled} configuration.
+ * In the flight recorder mode the text records are not logged unless the
+ * {@code org.lorislab.jel.logger.jfr.text} is set. The event classes are loaded only in the flight recorder mode.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerEvents {
+
+    /**
+     * The service call type.
+     */
+    static final String SERVICE = "service";
+
+    /**
+     * The rest resource call type.
+     */
+    static final String REST = "rest";
+
+    /**
+     * The rest client call type.
+     */
+    static final String CLIENT = "client";
+
+    /**
+     * The succeed outcome.
+     */
+    static final String SUCCEED = "succeed";
+
+    /**
+     * The failed outcome.
+     */
+    static final String FAILED = "failed";
+
+    /**
+     * The flight recorder mode flag.
+     */
+    static final boolean ENABLED;
+
+    /**
+     * The text records flag.
+     */
+    static final boolean TEXT;
+
+    /**
+     * The minimal duration of the committed event in nanoseconds.
+     */
+    private static final long THRESHOLD;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        ENABLED = config.getOptionalValue("org.lorislab.jel.logger.jfr.enabled", Boolean.class).orElse(false);
+        TEXT = !ENABLED || config.getOptionalValue("org.lorislab.jel.logger.jfr.text", Boolean.class).orElse(false);
+        THRESHOLD = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.jfr.threshold", Long.class).orElse(0L)));
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerEvents() {
+        // empty constructor
+    }
+
+    /**
+     * Gets the logger for the text records.
+     *
+     * @param logger the logger.
+     * @return the logger or the no-operation logger if the text records are disabled.
+     */
+    static Logger logger(Logger logger) {
+        return TEXT ? logger : NOPLogger.NOP_LOGGER;
+    }
+
+    /**
+     * Returns {@code true} if the HTTP status is the failed call. The rule is shared by the metrics and all outputs.
+     *
+     * @param status the HTTP status.
+     * @return the failed call flag.
+     */
+    static boolean failed(int status) {
+        return status >= 400;
+    }
+
+    /**
+     * Gets the outcome of the HTTP status.
+     *
+     * @param status the HTTP status.
+     * @return the outcome of the call.
+     */
+    static String outcome(int status) {
+        return failed(status) ? FAILED : SUCCEED;
+    }
+
+    /**
+     * Begins the event of the call.
+     *
+     * @param context the interceptor context.
+     */
+    static void begin(InterceptorContext context) {
+        if (ENABLED) {
+            LoggerEvent event = new LoggerEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                context.event = event;
+            }
+        }
+    }
+
+    /**
+     * Commits the event of the call if the recording is running and the duration exceeds the threshold.
+     *
+     * @param context   the closed interceptor context.
+     * @param type      the type of the call.
+     * @param className the class name.
+     * @param method    the method.
+     * @param outcome   the outcome of the call.
+     * @param status    the HTTP status or {@code 0}.
+     */
+    static void commit(InterceptorContext context, String type, String className, String method, String outcome, int status) {
+        Object tmp = context.event;
+        if (tmp == null) {
+            return;
+        }
+        context.event = null;
+        LoggerEvent event = (LoggerEvent) tmp;
+        event.end();
+        if (context.getDuration() >= THRESHOLD && event.shouldCommit()) {
+            event.type = type;
+            event.className = className;
+            event.method = method;
+            event.outcome = outcome;
+            event.status = status;
+            event.commit();
+        }
+    }
+}
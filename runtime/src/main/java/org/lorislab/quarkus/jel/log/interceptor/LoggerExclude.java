@@ -22,14 +22,14 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * If present, do not include this parameter value in the logger.
+ * If present, do not include this parameter or field value in the logger.
  */
-@Target(ElementType.PARAMETER)
+@Target({ElementType.PARAMETER, ElementType.FIELD})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface LoggerExclude {
 
     /**
-     * If this flag is empty the parameter name will be use to log
+     * If this flag is empty the parameter or field name will be use to log
      * otherwise the value of this attribute will be use.
      * @return the mask flag.
      */
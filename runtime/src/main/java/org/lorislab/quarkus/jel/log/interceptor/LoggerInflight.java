@@ -0,0 +1,252 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import javax.ws.rs.ProcessingException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The registry of the running rest calls.
+ * <p>
+ * The rest call is completed by the response filter. The call which never reaches the response filter,
+ * the rest client connection failure or the unmapped exception of the rest resource, is completed
+ * as failed. The rest client call is failed by the exception of the calling logged service on the same
+ * thread, the remaining calls are failed by the periodic sweep after the timeout, see
+ * the {@code org.lorislab.jel.logger.rs.timeout} and {@code org.lorislab.jel.logger.rs.client.timeout} configuration.
+ * The registry is enabled by default only for the metrics, the body capture and the call tree which must not leak
+ * the active gauge, the pooled buffers and the bound call tree, see the {@code org.lorislab.jel.logger.rs.inflight} configuration.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerInflight {
+
+    /**
+     * The registry enabled flag.
+     */
+    static final boolean ENABLED;
+
+    /**
+     * The timeout of the rest resource call in nanoseconds.
+     */
+    static final long TIMEOUT;
+
+    /**
+     * The timeout of the rest client call in nanoseconds.
+     */
+    static final long CLIENT_TIMEOUT;
+
+    /**
+     * The sweep period in nanoseconds.
+     */
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The running rest resource calls.
+     */
+    private static final Set<Call> CALLS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The running rest client calls.
+     */
+    private static final Set<Call> CLIENT_CALLS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The sweep task or {@code null} if the task was not scheduled.
+     */
+    private static volatile Future<?> sweep;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        ENABLED = config.getOptionalValue("org.lorislab.jel.logger.rs.inflight", Boolean.class).orElse(LoggerMetrics.ENABLED || LoggerBodyPool.SIZE > 0 || LoggerCallTree.ENABLED);
+        TIMEOUT = TimeUnit.SECONDS.toNanos(Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.rs.timeout", Long.class).orElse(300L)));
+        CLIENT_TIMEOUT = TimeUnit.SECONDS.toNanos(Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.rs.client.timeout", Long.class).orElse(120L)));
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerInflight() {
+        // empty constructor
+    }
+
+    /**
+     * Registers the running call if the registry is enabled.
+     *
+     * @param call the call.
+     */
+    static void add(Call call) {
+        if (!ENABLED) {
+            return;
+        }
+        calls(call.client).add(call);
+        Future<?> tmp = sweep;
+        if (tmp == null || tmp.isDone()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Gets the running calls of the kind.
+     *
+     * @param client the rest client call flag.
+     * @return the running calls.
+     */
+    private static Set<Call> calls(boolean client) {
+        return client ? CLIENT_CALLS : CALLS;
+    }
+
+    /**
+     * Fails the running rest client calls of the current thread started after the start time.
+     * The method is called for the exception of the logged service, only the rest client
+     * processing exception fails the calls.
+     *
+     * @param start     the start time of the failed service call.
+     * @param throwable the exception.
+     */
+    static void failed(long start, Throwable throwable) {
+        if (CLIENT_CALLS.isEmpty() || !processing(throwable)) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        for (Call call : CLIENT_CALLS) {
+            if (call.thread == thread && call.context.getStartTime() - start >= 0 && call.complete()) {
+                call.failed(String.valueOf(throwable));
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the exception or the cause is the rest client processing exception.
+     *
+     * @param throwable the exception.
+     * @return the processing exception flag.
+     */
+    private static boolean processing(Throwable throwable) {
+        for (Throwable tmp = throwable; tmp != null; tmp = tmp.getCause() == tmp ? null : tmp.getCause()) {
+            if (tmp instanceof ProcessingException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Schedules the sweep task if it is not running. The task is scheduled again after the restart of the scheduler.
+     */
+    private static synchronized void schedule() {
+        if (sweep == null || sweep.isDone()) {
+            sweep = LoggerScheduler.scheduleAtFixedRate(LoggerInflight::sweep, PERIOD);
+        }
+    }
+
+    /**
+     * Fails the calls running longer than the timeout.
+     */
+    private static void sweep() {
+        long now = System.nanoTime();
+        sweep(CALLS, now);
+        sweep(CLIENT_CALLS, now);
+    }
+
+    /**
+     * Fails the calls running longer than the timeout.
+     *
+     * @param calls the running calls.
+     * @param now   the current time in nanoseconds.
+     */
+    private static void sweep(Set<Call> calls, long now) {
+        for (Call call : calls) {
+            if (now - call.context.getStartTime() >= call.timeout && call.complete()) {
+                try {
+                    call.failed("timeout");
+                } catch (RuntimeException ex) {
+                    // the sweep task must not be cancelled by the failed call
+                }
+            }
+        }
+    }
+
+    /**
+     * The running rest call.
+     */
+    abstract static class Call {
+
+        /**
+         * The interceptor context.
+         */
+        final InterceptorContext context;
+
+        /**
+         * The rest client call flag.
+         */
+        private final boolean client;
+
+        /**
+         * The caller thread.
+         */
+        private final Thread thread;
+
+        /**
+         * The timeout in nanoseconds.
+         */
+        private final long timeout;
+
+        /**
+         * The completed flag.
+         */
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        /**
+         * The default constructor.
+         *
+         * @param context the interceptor context.
+         * @param client  the rest client call flag.
+         */
+        Call(InterceptorContext context, boolean client) {
+            this.context = context;
+            this.client = client;
+            this.thread = Thread.currentThread();
+            this.timeout = client ? CLIENT_TIMEOUT : TIMEOUT;
+        }
+
+        /**
+         * Completes the call. Only the first completion of the call returns {@code true}.
+         *
+         * @return {@code true} if the call was completed by this method.
+         */
+        boolean complete() {
+            if (completed.compareAndSet(false, true)) {
+                calls(client).remove(this);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Records the call without the response.
+         *
+         * @param reason the failure reason.
+         */
+        abstract void failed(String reason);
+    }
+}
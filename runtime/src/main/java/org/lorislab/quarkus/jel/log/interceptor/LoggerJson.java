@@ -0,0 +1,404 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.util.Map;
+
+/**
+ * The JSON output of the interceptor log records.
+ * <p>
+ * The record is a lazy log parameter, the JSON object is written into the reused thread buffer
+ * only when the log message is rendered. The message templates are not used in the JSON mode.
+ * The JSON mode is disabled by default, see the {@code org.lorislab.jel.logger.json} configuration.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerJson {
+
+    /**
+     * The JSON mode enabled flag.
+     */
+    static final boolean ENABLED = ConfigProvider.getConfig().getOptionalValue("org.lorislab.jel.logger.json", Boolean.class).orElse(false);
+
+    /**
+     * The start record.
+     */
+    static final String STARTED = "started";
+
+    /**
+     * The future start record.
+     */
+    static final String FUTURE_STARTED = "futureStarted";
+
+    /**
+     * The record of the call running after the deadline.
+     */
+    static final String RUNNING = "running";
+
+    /**
+     * The finish record.
+     */
+    static final String FINISHED = "finished";
+
+    /**
+     * The entity bytes record.
+     */
+    static final String ENTITY = "entity";
+
+    /**
+     * The call tree record.
+     */
+    static final String TREE = "tree";
+
+    /**
+     * The request body record.
+     */
+    static final String REQUEST_BODY = "requestBody";
+
+    /**
+     * The response body record.
+     */
+    static final String RESPONSE_BODY = "responseBody";
+
+    /**
+     * The rest client statistics record.
+     */
+    static final String STATISTICS = "statistics";
+
+    /**
+     * The hex digits.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The default constructor.
+     */
+    private LoggerJson() {
+        // empty constructor
+    }
+
+    /**
+     * Creates the service method record.
+     *
+     * @param event   the record event.
+     * @param ano     the logger method.
+     * @param context the interceptor context.
+     * @param outcome the outcome of the finished call or {@code null}.
+     * @return the log parameter.
+     */
+    static Object service(String event, LoggerMethod ano, InterceptorContext context, String outcome) {
+        return new Record(LoggerEvents.SERVICE, event, ano.className, context.method, null, null, context, -1, outcome, null, null);
+    }
+
+    /**
+     * Creates the rest resource method record.
+     *
+     * @param event   the record event.
+     * @param ano      the logger method.
+     * @param resource the resource.
+     * @param context  the interceptor context.
+     * @param status   the response status or {@code -1}.
+     * @param outcome  the outcome of the finished call or {@code null}.
+     * @param tree     the call tree or {@code null}.
+     * @param counter  the entity counter or {@code null}.
+     * @return the log parameter.
+     */
+    static Object rest(String event, LoggerMethod ano, LoggerResource resource, InterceptorContext context, int status, String outcome, Object tree,
+                       LoggerEntityCounter counter) {
+        return new Record(LoggerEvents.REST, event, ano.className, ano.methodName, context.method, resource.path, context, status, outcome, tree, counter);
+    }
+
+    /**
+     * Creates the rest client record.
+     *
+     * @param event   the record event.
+     * @param context the interceptor context.
+     * @param status  the response status or {@code -1}.
+     * @param outcome the outcome of the finished call or {@code null}.
+     * @param counter the entity counter or {@code null}.
+     * @return the log parameter.
+     */
+    static Object client(String event, InterceptorContext context, int status, String outcome, LoggerEntityCounter counter) {
+        return new Record(LoggerEvents.CLIENT, event, null, null, context.method, null, context, status, outcome, null, counter);
+    }
+
+    /**
+     * Creates the captured body record.
+     *
+     * @param type    the interceptor type.
+     * @param event   the record event, the request or the response body.
+     * @param context the interceptor context.
+     * @param status  the response status.
+     * @param body    the captured body.
+     * @return the JSON object.
+     */
+    static String body(String type, String event, InterceptorContext context, int status, String body) {
+        StringBuilder sb = LoggerBuffer.acquire();
+        sb.append("{\"type\":\"").append(type).append('"');
+        field(sb, "event", event);
+        field(sb, "http_method", context.method);
+        field(sb, "params", context.getParameters());
+        name(sb, "status").append(status);
+        field(sb, "body", body);
+        sb.append('}');
+        return LoggerBuffer.release(sb);
+    }
+
+    /**
+     * Creates the rest client statistics record.
+     *
+     * @param window the window length in seconds.
+     * @param hosts  the statistics of the hosts.
+     * @param paths  the statistics of the path templates.
+     * @return the JSON object.
+     */
+    static String statistics(long window, Map<String, LoggerClientStatistics.Statistics> hosts, Map<String, LoggerClientStatistics.Statistics> paths) {
+        StringBuilder sb = LoggerBuffer.acquire();
+        sb.append("{\"type\":\"").append(LoggerEvents.CLIENT).append('"');
+        field(sb, "event", STATISTICS);
+        name(sb, "window_s").append(window);
+        statistics(name(sb, "hosts"), hosts);
+        statistics(name(sb, "paths"), paths);
+        sb.append('}');
+        return LoggerBuffer.release(sb);
+    }
+
+    /**
+     * Appends the array of the statistics.
+     *
+     * @param sb  the string builder.
+     * @param map the statistics by the key.
+     */
+    private static void statistics(StringBuilder sb, Map<String, LoggerClientStatistics.Statistics> map) {
+        sb.append('[');
+        boolean first = true;
+        for (Map.Entry<String, LoggerClientStatistics.Statistics> e : map.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            LoggerClientStatistics.Statistics item = e.getValue();
+            sb.append("{\"key\":");
+            string(sb, e.getKey());
+            name(sb, "count").append(item.getCount());
+            name(sb, "errors").append(item.getErrors());
+            name(sb, "p50_ns").append(item.getLatency().getP50());
+            name(sb, "p90_ns").append(item.getLatency().getP90());
+            name(sb, "p99_ns").append(item.getLatency().getP99());
+            name(sb, "max_ns").append(item.getLatency().getMax());
+            sb.append('}');
+        }
+        sb.append(']');
+    }
+
+    /**
+     * Appends the field name.
+     *
+     * @param sb   the string builder.
+     * @param name the field name.
+     * @return the string builder.
+     */
+    private static StringBuilder name(StringBuilder sb, String name) {
+        return sb.append(",\"").append(name).append("\":");
+    }
+
+    /**
+     * Appends the string field. The {@code null} value is skipped.
+     *
+     * @param sb    the string builder.
+     * @param name  the field name.
+     * @param value the field value.
+     */
+    private static void field(StringBuilder sb, String name, CharSequence value) {
+        if (value != null) {
+            string(name(sb, name), value);
+        }
+    }
+
+    /**
+     * Appends the quoted and escaped string.
+     *
+     * @param sb    the string builder.
+     * @param value the string value.
+     */
+    static void string(StringBuilder sb, CharSequence value) {
+        sb.append('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            sb.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        sb.append(value, start, length).append('"');
+    }
+
+    /**
+     * The interceptor log record.
+     */
+    private static final class Record {
+
+        /**
+         * The interceptor type.
+         */
+        private final String type;
+
+        /**
+         * The record event.
+         */
+        private final String event;
+
+        /**
+         * The class name or {@code null}.
+         */
+        private final String className;
+
+        /**
+         * The method name or {@code null}.
+         */
+        private final String method;
+
+        /**
+         * The HTTP method or {@code null}.
+         */
+        private final String verb;
+
+        /**
+         * The path template or {@code null}.
+         */
+        private final String path;
+
+        /**
+         * The interceptor context.
+         */
+        private final InterceptorContext context;
+
+        /**
+         * The response status or {@code -1}.
+         */
+        private final int status;
+
+        /**
+         * The outcome or {@code null}.
+         */
+        private final String outcome;
+
+        /**
+         * The call tree or {@code null}.
+         */
+        private final Object tree;
+
+        /**
+         * The entity counter or {@code null}.
+         */
+        private final LoggerEntityCounter counter;
+
+        /**
+         * The default constructor.
+         *
+         * @param type      the interceptor type.
+         * @param event     the record event.
+         * @param className the class name.
+         * @param method    the method name.
+         * @param verb      the HTTP method.
+         * @param path      the path template.
+         * @param context   the interceptor context.
+         * @param status    the response status.
+         * @param outcome   the outcome.
+         * @param tree      the call tree.
+         * @param counter   the entity counter.
+         */
+        Record(String type, String event, String className, String method, String verb, String path, InterceptorContext context, int status,
+               String outcome, Object tree, LoggerEntityCounter counter) {
+            this.type = type;
+            this.event = event;
+            this.className = className;
+            this.method = method;
+            this.verb = verb;
+            this.path = path;
+            this.context = context;
+            this.status = status;
+            this.outcome = outcome;
+            this.tree = tree;
+            this.counter = counter;
+        }
+
+        /**
+         * Writes the JSON object of the record.
+         *
+         * @return the JSON object.
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = LoggerBuffer.acquire();
+            sb.append("{\"type\":\"").append(type).append('"');
+            field(sb, "event", event);
+            field(sb, "class", className);
+            field(sb, "method", method);
+            field(sb, "http_method", verb);
+            field(sb, "path", path);
+            if (!RUNNING.equals(event)) {
+                field(sb, "params", context.getParameters());
+            }
+            if (outcome != null) {
+                field(sb, "result", context.getResult());
+            }
+            if (context.getEndTime() != 0 || RUNNING.equals(event)) {
+                name(sb, "duration_ns").append(context.getDuration());
+            }
+            if (status >= 0) {
+                name(sb, "status").append(status);
+            }
+            field(sb, "outcome", outcome);
+            if (counter != null) {
+                name(sb, "received_bytes").append(counter.getReceived());
+                name(sb, "sent_bytes").append(counter.getSent());
+                name(sb, "bytes_per_second").append(counter.getThroughput());
+            }
+            if (tree instanceof LoggerCallTree) {
+                LoggerCallTree item = (LoggerCallTree) tree;
+                name(sb, "self_ns").append(item.getSelf());
+                field(sb, "tree", item.toString());
+            }
+            sb.append('}');
+            return LoggerBuffer.release(sb);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * The resolved logger decision of the intercepted method.
+ *
+ * @author Andrej Petras
+ */
+public final class LoggerMethod {
+
+    /**
+     * The index of the method in the {@link LoggerMethodTable}.
+     */
+    public final int id;
+
+    /**
+     * The class name.
+     */
+    public final String className;
+
+    /**
+     * The method name.
+     */
+    public final String methodName;
+
+    /**
+     * The log flag.
+     */
+    public final boolean log;
+
+    /**
+     * The stacktrace flag.
+     */
+    public final boolean stacktrace;
+
+    /**
+     * The slow call threshold in nanoseconds or {@code -1} if every call is logged.
+     */
+    public final long threshold;
+
+    /**
+     * The adaptive sampler or {@code null} if every call is logged.
+     */
+    final LoggerSampler sampler;
+
+    /**
+     * The logger of the class.
+     */
+    public final Logger logger;
+
+    /**
+     * The build time parameter masks or {@code null}.
+     */
+    private final List<String> excludes;
+
+    /**
+     * The parameter formatters.
+     */
+    private volatile LoggerParameters parameters;
+
+    /**
+     * The metrics of the service method.
+     */
+    private volatile LoggerMetrics.Series series;
+
+    /**
+     * The default constructor.
+     *
+     * @param id         the index of the method.
+     * @param className  the class name.
+     * @param methodName the method name.
+     * @param log        the log flag.
+     * @param stacktrace the stacktrace flag.
+     * @param threshold  the slow call threshold in nanoseconds or {@code -1}.
+     * @param rate       the sampling rate in calls per second or {@code -1}.
+     * @param excludes   the build time parameter masks or {@code null}.
+     */
+    LoggerMethod(int id, String className, String methodName, boolean log, boolean stacktrace, long threshold, long rate, List<String> excludes) {
+        this.id = id;
+        this.className = className;
+        this.methodName = methodName;
+        this.log = log;
+        this.stacktrace = stacktrace;
+        this.threshold = threshold;
+        this.sampler = log && rate > 0 ? new LoggerSampler(rate) : null;
+        this.excludes = excludes;
+        this.logger = LoggerFactory.getLogger(className);
+    }
+
+    /**
+     * Returns {@code true} if only the slow and failed calls are logged.
+     *
+     * @return the slow call mode flag.
+     */
+    public boolean slow() {
+        return threshold >= 0;
+    }
+
+    /**
+     * Returns {@code true} if the call should be logged by the adaptive sampler.
+     *
+     * @return the sampled flag.
+     */
+    boolean sample() {
+        return sampler == null || sampler.sample();
+    }
+
+    /**
+     * Gets the parameter formatters. The formatters are created on the first call.
+     *
+     * @param method  the method.
+     * @param service the logger builder service.
+     * @return the parameter formatters.
+     */
+    LoggerParameters parameters(Method method, LoggerBuilderService service) {
+        LoggerParameters tmp = parameters;
+        if (tmp == null) {
+            tmp = LoggerParameters.create(method, excludes, service);
+            parameters = tmp;
+        }
+        return tmp;
+    }
+
+    /**
+     * Gets the metrics. The metrics are created on the first call.
+     *
+     * @return the metrics.
+     */
+    LoggerMetrics.Series series() {
+        LoggerMetrics.Series tmp = series;
+        if (tmp == null) {
+            synchronized (this) {
+                tmp = series;
+                if (tmp == null) {
+                    tmp = new LoggerMetrics.Series();
+                    series = tmp;
+                }
+            }
+        }
+        return tmp;
+    }
+
+    /**
+     * Gets the metrics.
+     *
+     * @return the metrics or {@code null} if nothing was recorded.
+     */
+    LoggerMetrics.Series getSeries() {
+        return series;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String toString() {
+        return className + "." + methodName;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The build time information of the intercepted method.
+ * <p>
+ * The item is created by the deployment module from the Jandex index
+ * and recorded for the {@link LoggerRecorder}.
+ *
+ * @author Andrej Petras
+ */
+public class LoggerMethodItem {
+
+    /**
+     * The class name.
+     */
+    private String className;
+
+    /**
+     * The method name.
+     */
+    private String methodName;
+
+    /**
+     * The comma separated list of the method parameter type names.
+     */
+    private String parameters;
+
+    /**
+     * The method has the logger service annotation.
+     */
+    private boolean methodAnnotation;
+
+    /**
+     * The method annotation log flag.
+     */
+    private boolean log;
+
+    /**
+     * The method annotation stacktrace flag.
+     */
+    private boolean stacktrace;
+
+    /**
+     * The class has the logger service annotation.
+     */
+    private boolean classAnnotation;
+
+    /**
+     * The class annotation log flag.
+     */
+    private boolean classLog;
+
+    /**
+     * The class annotation stacktrace flag.
+     */
+    private boolean classStacktrace;
+
+    /**
+     * The parameter masks of the excluded parameters. The empty value is for not excluded parameter.
+     */
+    private List<String> excludes = new ArrayList<>();
+
+    /**
+     * Gets the class name.
+     *
+     * @return the class name.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Sets the class name.
+     *
+     * @param className the class name.
+     */
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    /**
+     * Gets the method name.
+     *
+     * @return the method name.
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Sets the method name.
+     *
+     * @param methodName the method name.
+     */
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    /**
+     * Gets the method parameter type names.
+     *
+     * @return the method parameter type names.
+     */
+    public String getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Sets the method parameter type names.
+     *
+     * @param parameters the method parameter type names.
+     */
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * Gets the method annotation flag.
+     *
+     * @return the method annotation flag.
+     */
+    public boolean isMethodAnnotation() {
+        return methodAnnotation;
+    }
+
+    /**
+     * Sets the method annotation flag.
+     *
+     * @param methodAnnotation the method annotation flag.
+     */
+    public void setMethodAnnotation(boolean methodAnnotation) {
+        this.methodAnnotation = methodAnnotation;
+    }
+
+    /**
+     * Gets the method log flag.
+     *
+     * @return the method log flag.
+     */
+    public boolean isLog() {
+        return log;
+    }
+
+    /**
+     * Sets the method log flag.
+     *
+     * @param log the method log flag.
+     */
+    public void setLog(boolean log) {
+        this.log = log;
+    }
+
+    /**
+     * Gets the method stacktrace flag.
+     *
+     * @return the method stacktrace flag.
+     */
+    public boolean isStacktrace() {
+        return stacktrace;
+    }
+
+    /**
+     * Sets the method stacktrace flag.
+     *
+     * @param stacktrace the method stacktrace flag.
+     */
+    public void setStacktrace(boolean stacktrace) {
+        this.stacktrace = stacktrace;
+    }
+
+    /**
+     * Gets the class annotation flag.
+     *
+     * @return the class annotation flag.
+     */
+    public boolean isClassAnnotation() {
+        return classAnnotation;
+    }
+
+    /**
+     * Sets the class annotation flag.
+     *
+     * @param classAnnotation the class annotation flag.
+     */
+    public void setClassAnnotation(boolean classAnnotation) {
+        this.classAnnotation = classAnnotation;
+    }
+
+    /**
+     * Gets the class log flag.
+     *
+     * @return the class log flag.
+     */
+    public boolean isClassLog() {
+        return classLog;
+    }
+
+    /**
+     * Sets the class log flag.
+     *
+     * @param classLog the class log flag.
+     */
+    public void setClassLog(boolean classLog) {
+        this.classLog = classLog;
+    }
+
+    /**
+     * Gets the class stacktrace flag.
+     *
+     * @return the class stacktrace flag.
+     */
+    public boolean isClassStacktrace() {
+        return classStacktrace;
+    }
+
+    /**
+     * Sets the class stacktrace flag.
+     *
+     * @param classStacktrace the class stacktrace flag.
+     */
+    public void setClassStacktrace(boolean classStacktrace) {
+        this.classStacktrace = classStacktrace;
+    }
+
+    /**
+     * Gets the parameter masks.
+     *
+     * @return the parameter masks.
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Sets the parameter masks.
+     *
+     * @param excludes the parameter masks.
+     */
+    public void setExcludes(List<String> excludes) {
+        this.excludes = excludes;
+    }
+
+    /**
+     * Gets the method key.
+     *
+     * @return the method key.
+     */
+    String key() {
+        return LoggerMethodTable.key(className, methodName, parameters);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String toString() {
+        return key();
+    }
+}
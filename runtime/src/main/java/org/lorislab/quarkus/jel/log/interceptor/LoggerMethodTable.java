@@ -0,0 +1,350 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The table of the logger decisions for the intercepted methods.
+ * <p>
+ * The annotations of the intercepted methods are resolved at build time and recorded
+ * by the {@link LoggerRecorder}. The configuration is applied once at runtime init.
+ * The runtime lookup is a {@link ClassValue} and a map get without allocation.
+ * Methods unknown at build time are resolved with reflection on the first call.
+ *
+ * @author Andrej Petras
+ */
+public final class LoggerMethodTable {
+
+    /**
+     * The configuration key suffix.
+     */
+    private static final String KEY = "/jel-log/";
+
+    /**
+     * The global slow call threshold key. The threshold is in milliseconds, the negative value disables the slow call mode.
+     */
+    private static final String THRESHOLD = "org.lorislab.jel.logger.threshold";
+
+    /**
+     * The global sampling rate key. The rate is the number of the logged calls per second, the negative value disables the sampling.
+     */
+    private static final String RATE = "org.lorislab.jel.logger.sampling.rate";
+
+    /**
+     * The methods by the method key. The methods unknown at build time are added on the first call.
+     */
+    private static volatile ConcurrentMap<String, LoggerMethod> items = new ConcurrentHashMap<>();
+
+    /**
+     * The methods by the index.
+     */
+    private static volatile LoggerMethod[] methods = new LoggerMethod[0];
+
+    /**
+     * The service methods by the target class.
+     */
+    private static final ClassValue<ClassTable> SERVICES = new ClassValue<ClassTable>() {
+        @Override
+        protected ClassTable computeValue(Class<?> type) {
+            return new ClassTable(type, getServiceClassName(type));
+        }
+    };
+
+    /**
+     * The rest resource methods by the resource class.
+     */
+    private static final ClassValue<ClassTable> RESOURCES = new ClassValue<ClassTable>() {
+        @Override
+        protected ClassTable computeValue(Class<?> type) {
+            return new ClassTable(type, type.getName());
+        }
+    };
+
+    /**
+     * The default constructor.
+     */
+    private LoggerMethodTable() {
+        // empty constructor
+    }
+
+    /**
+     * Initialize the table with the build time items.
+     *
+     * @param list the list of build time items.
+     */
+    static synchronized void init(List<LoggerMethodItem> list) {
+        Config config = ConfigProvider.getConfig();
+        LoggerMethod[] tmp = new LoggerMethod[list.size()];
+        ConcurrentMap<String, LoggerMethod> map = new ConcurrentHashMap<>(list.size() * 2);
+        for (int i = 0; i < tmp.length; i++) {
+            LoggerMethodItem item = list.get(i);
+            tmp[i] = create(config, i, item.getClassName(), item.getMethodName(),
+                    item.isMethodAnnotation() ? item.isLog() : null,
+                    item.isMethodAnnotation() ? item.isStacktrace() : null,
+                    item.isClassAnnotation() ? item.isClassLog() : null,
+                    item.isClassAnnotation() ? item.isClassStacktrace() : null,
+                    item.getExcludes());
+            map.put(item.key(), tmp[i]);
+        }
+        methods = tmp;
+        items = map;
+    }
+
+    /**
+     * Gets the logger method for the intercepted service.
+     *
+     * @param target the intercepted target instance.
+     * @param method the intercepted method.
+     * @return the corresponding logger method.
+     */
+    public static LoggerMethod service(Object target, Method method) {
+        return SERVICES.get(target.getClass()).get(method);
+    }
+
+    /**
+     * Gets the logger method for the rest resource method.
+     *
+     * @param clazz  the resource class.
+     * @param method the resource method.
+     * @return the corresponding logger method.
+     */
+    public static LoggerMethod resource(Class<?> clazz, Method method) {
+        return RESOURCES.get(clazz).get(method);
+    }
+
+    /**
+     * Gets the logger method by the index.
+     *
+     * @param id the index of the method.
+     * @return the corresponding logger method or {@code null}.
+     */
+    public static LoggerMethod get(int id) {
+        LoggerMethod[] tmp = methods;
+        if (id >= 0 && id < tmp.length) {
+            return tmp[id];
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of the methods in the table.
+     *
+     * @return the number of the methods.
+     */
+    public static int size() {
+        return methods.length;
+    }
+
+    /**
+     * Creates the method key.
+     *
+     * @param className  the class name.
+     * @param methodName the method name.
+     * @param parameters the comma separated list of the parameter type names.
+     * @return the method key.
+     */
+    static String key(String className, String methodName, String parameters) {
+        return className + "." + methodName + "(" + parameters + ")";
+    }
+
+    /**
+     * Register the method which is not in the build time table.
+     * The method is created once per method key, the concurrent first calls get the same logger method.
+     *
+     * @param clazz     the class.
+     * @param className the class name.
+     * @param method    the method.
+     * @return the corresponding logger method.
+     */
+    private static LoggerMethod register(Class<?> clazz, String className, Method method) {
+        StringJoiner parameters = new StringJoiner(",");
+        for (Class<?> type : method.getParameterTypes()) {
+            parameters.add(type.getName());
+        }
+        String key = key(className, method.getName(), parameters.toString());
+        LoggerMethod result = items.get(key);
+        if (result != null) {
+            return result;
+        }
+        return items.computeIfAbsent(key, k -> append(clazz, className, method));
+    }
+
+    /**
+     * Appends the method which is not in the build time table to the table.
+     *
+     * @param clazz     the class.
+     * @param className the class name.
+     * @param method    the method.
+     * @return the corresponding logger method.
+     */
+    private static synchronized LoggerMethod append(Class<?> clazz, String className, Method method) {
+        LoggerMethod[] tmp = Arrays.copyOf(methods, methods.length + 1);
+        LoggerService anno = method.getAnnotation(LoggerService.class);
+        LoggerService canno = clazz.getAnnotation(LoggerService.class);
+        LoggerMethod result = create(ConfigProvider.getConfig(), methods.length, className, method.getName(),
+                anno != null ? anno.log() : null,
+                anno != null ? anno.stacktrace() : null,
+                canno != null ? canno.log() : null,
+                canno != null ? canno.stacktrace() : null,
+                null);
+        tmp[result.id] = result;
+        methods = tmp;
+        return result;
+    }
+
+    /**
+     * Creates the logger method and apply the configuration.
+     * The slow call threshold in milliseconds and the sampling rate are taken from the method, class or global configuration.
+     *
+     * @param config          the configuration.
+     * @param id              the index of the method.
+     * @param className       the class name.
+     * @param methodName      the method name.
+     * @param log             the method annotation log flag or {@code null}.
+     * @param stacktrace      the method annotation stacktrace flag or {@code null}.
+     * @param classLog        the class annotation log flag or {@code null}.
+     * @param classStacktrace the class annotation stacktrace flag or {@code null}.
+     * @param excludes        the build time parameter masks or {@code null}.
+     * @return the corresponding logger method.
+     */
+    private static LoggerMethod create(Config config, int id, String className, String methodName,
+                                       Boolean log, Boolean stacktrace, Boolean classLog, Boolean classStacktrace,
+                                       List<String> excludes) {
+        String mc = className + "." + methodName + KEY;
+        String c = className + KEY;
+
+        long nanos = getValue(config, mc + "threshold", c + "threshold", THRESHOLD).orElse(-1L);
+        nanos = nanos < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(nanos);
+        long rate = getValue(config, mc + "rate", c + "rate", RATE).orElse(-1L);
+
+        Optional<Boolean> mlog = config.getOptionalValue(mc + "log", Boolean.class);
+        Optional<Boolean> mtrace = config.getOptionalValue(mc + "trace", Boolean.class);
+        if (log != null) {
+            return new LoggerMethod(id, className, methodName, mlog.orElse(log), mtrace.orElse(stacktrace), nanos, rate, excludes);
+        }
+        Optional<Boolean> clog = config.getOptionalValue(c + "log", Boolean.class);
+        Optional<Boolean> ctrace = config.getOptionalValue(c + "trace", Boolean.class);
+        if (classLog != null) {
+            return new LoggerMethod(id, className, methodName, mlog.orElse(clog.orElse(classLog)), mtrace.orElse(ctrace.orElse(classStacktrace)), nanos, rate, excludes);
+        }
+        return new LoggerMethod(id, className, methodName, mlog.orElse(clog.orElse(true)), mtrace.orElse(ctrace.orElse(true)), nanos, rate, excludes);
+    }
+
+    /**
+     * Gets the long value from the method, class or global configuration.
+     *
+     * @param config the configuration.
+     * @param keys   the configuration keys in the priority order.
+     * @return the first configured value.
+     */
+    private static Optional<Long> getValue(Config config, String... keys) {
+        for (String key : keys) {
+            Optional<Long> value = config.getOptionalValue(key, Long.class);
+            if (value.isPresent()) {
+                return value;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the service class name.
+     *
+     * @param clazz the target class.
+     * @return the corresponding class name.
+     */
+    private static String getServiceClassName(Class<?> clazz) {
+        if (Proxy.isProxyClass(clazz)) {
+            Class<?>[] interfaces = clazz.getInterfaces();
+            if (interfaces.length > 0) {
+                return getClassName(interfaces[0]);
+            }
+        }
+        return getClassName(clazz);
+    }
+
+    /**
+     * Gets the service class name.
+     *
+     * @param clazz the target class.
+     * @return the corresponding class name.
+     */
+    private static String getClassName(Class<?> clazz) {
+        if (clazz.getSuperclass() != null) {
+            return clazz.getSuperclass().getName();
+        }
+        return clazz.getName();
+    }
+
+    /**
+     * The logger methods of the class.
+     */
+    private static final class ClassTable {
+
+        /**
+         * The class.
+         */
+        private final Class<?> clazz;
+
+        /**
+         * The class name.
+         */
+        private final String className;
+
+        /**
+         * The logger methods by the method.
+         */
+        private final ConcurrentMap<Method, LoggerMethod> methods = new ConcurrentHashMap<>();
+
+        /**
+         * The default constructor.
+         *
+         * @param clazz     the class.
+         * @param className the class name.
+         */
+        ClassTable(Class<?> clazz, String className) {
+            this.clazz = clazz;
+            this.className = className;
+        }
+
+        /**
+         * Gets the logger method.
+         *
+         * @param method the method.
+         * @return the corresponding logger method.
+         */
+        LoggerMethod get(Method method) {
+            LoggerMethod result = methods.get(method);
+            if (result == null) {
+                result = register(clazz, className, method);
+                LoggerMethod tmp = methods.putIfAbsent(method, result);
+                if (tmp != null) {
+                    result = tmp;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latency metrics of the intercepted calls.
+ * <p>
+ * The durations of the logged service methods, rest resource path templates and rest client hosts
+ * are recorded in the {@link LatencyHistogram} together with the number of failed and running calls.
+ * The metrics are disabled by default, see the {@code org.lorislab.jel.logger.metrics.enabled} configuration.
+ *
+ * @author Andrej Petras
+ */
+public final class LoggerMetrics {
+
+    /**
+     * The metrics enabled flag.
+     */
+    static final boolean ENABLED = ConfigProvider.getConfig().getOptionalValue("org.lorislab.jel.logger.metrics.enabled", Boolean.class).orElse(false);
+
+    /**
+     * The rest resource metrics by the HTTP method and the path template.
+     */
+    private static final ConcurrentMap<String, Series> RESOURCES = new ConcurrentHashMap<>();
+
+    /**
+     * The rest client metrics by the host.
+     */
+    private static final ConcurrentMap<String, Series> CLIENTS = new ConcurrentHashMap<>();
+
+    /**
+     * The default constructor.
+     */
+    private LoggerMetrics() {
+        // empty constructor
+    }
+
+    /**
+     * Returns {@code true} if the metrics are enabled.
+     *
+     * @return the metrics enabled flag.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Gets the metrics of the service method.
+     *
+     * @param method the logger method.
+     * @return the metrics or {@code null} if the metrics are disabled.
+     */
+    static Series service(LoggerMethod method) {
+        return ENABLED ? method.series() : null;
+    }
+
+    /**
+     * Gets the metrics of the rest resource method.
+     *
+     * @param resource the rest resource.
+     * @return the metrics or {@code null} if the metrics are disabled.
+     */
+    static Series resource(LoggerResource resource) {
+        return ENABLED ? resource.series() : null;
+    }
+
+    /**
+     * Gets the metrics of the rest resource key.
+     *
+     * @param key the HTTP method and the path template separated by the zero character.
+     * @return the metrics.
+     */
+    static Series resource(String key) {
+        Series series = RESOURCES.get(key);
+        if (series == null) {
+            series = RESOURCES.computeIfAbsent(key, k -> new Series());
+        }
+        return series;
+    }
+
+    /**
+     * Gets the metrics of the rest client host.
+     *
+     * @param uri the request URI.
+     * @return the metrics or {@code null} if the metrics are disabled.
+     */
+    static Series client(URI uri) {
+        if (!ENABLED) {
+            return null;
+        }
+        String host = host(uri);
+        Series series = CLIENTS.get(host);
+        if (series == null) {
+            series = CLIENTS.computeIfAbsent(host, k -> new Series());
+        }
+        return series;
+    }
+
+    /**
+     * Gets the host and the port of the request URI.
+     *
+     * @param uri the request URI.
+     * @return the host and the port.
+     */
+    static String host(URI uri) {
+        if (uri.getHost() == null) {
+            return "";
+        }
+        return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * Marks the start of the call.
+     *
+     * @param series the metrics or {@code null}.
+     */
+    static void start(Series series) {
+        if (series != null) {
+            series.active.increment();
+        }
+    }
+
+    /**
+     * Records the finished call.
+     *
+     * @param series the metrics or {@code null}.
+     * @param nanos  the duration in nanoseconds.
+     * @param failed the failed call flag.
+     */
+    static void stop(Series series, long nanos, boolean failed) {
+        if (series != null) {
+            series.active.decrement();
+            series.histogram.record(nanos);
+            if (failed) {
+                series.failures.increment();
+            }
+        }
+    }
+
+    /**
+     * Records the entity bytes of the call.
+     *
+     * @param series   the metrics or {@code null}.
+     * @param received the number of the received bytes.
+     * @param sent     the number of the sent bytes.
+     */
+    static void entity(Series series, long received, long sent) {
+        if (series != null) {
+            series.received.add(received);
+            series.sent.add(sent);
+        }
+    }
+
+    /**
+     * Gets the snapshots of the service methods.
+     *
+     * @return the snapshots by the method name.
+     */
+    public static Map<String, LatencyHistogram.Snapshot> getServices() {
+        Map<String, LatencyHistogram.Snapshot> result = new TreeMap<>();
+        for (int i = 0; i < LoggerMethodTable.size(); i++) {
+            LoggerMethod method = LoggerMethodTable.get(i);
+            Series series = method == null ? null : method.getSeries();
+            if (series != null) {
+                result.merge(method.toString(), series.histogram.snapshot(), LatencyHistogram.Snapshot::merge);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the snapshots of the rest resource methods.
+     *
+     * @return the snapshots by the HTTP method and the path template.
+     */
+    public static Map<String, LatencyHistogram.Snapshot> getResources() {
+        Map<String, LatencyHistogram.Snapshot> result = new TreeMap<>();
+        RESOURCES.forEach((k, v) -> result.put(k.replace('\u0000', ' '), v.histogram.snapshot()));
+        return result;
+    }
+
+    /**
+     * Gets the snapshots of the rest client hosts.
+     *
+     * @return the snapshots by the host.
+     */
+    public static Map<String, LatencyHistogram.Snapshot> getClients() {
+        Map<String, LatencyHistogram.Snapshot> result = new TreeMap<>();
+        CLIENTS.forEach((k, v) -> result.put(k, v.histogram.snapshot()));
+        return result;
+    }
+
+    /**
+     * Gets the rest resource metrics.
+     *
+     * @return the rest resource metrics by the HTTP method and the path template.
+     */
+    static Map<String, Series> resources() {
+        return RESOURCES;
+    }
+
+    /**
+     * Gets the rest client metrics.
+     *
+     * @return the rest client metrics by the host.
+     */
+    static Map<String, Series> clients() {
+        return CLIENTS;
+    }
+
+    /**
+     * The metrics of the method or the host.
+     */
+    public static final class Series {
+
+        /**
+         * The latency histogram.
+         */
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * The number of the failed calls.
+         */
+        final LongAdder failures = new LongAdder();
+
+        /**
+         * The number of the running calls.
+         */
+        final LongAdder active = new LongAdder();
+
+        /**
+         * The number of the received entity bytes.
+         */
+        final LongAdder received = new LongAdder();
+
+        /**
+         * The number of the sent entity bytes.
+         */
+        final LongAdder sent = new LongAdder();
+
+        /**
+         * Gets the latency histogram.
+         *
+         * @return the latency histogram.
+         */
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        /**
+         * Gets the number of the failed calls.
+         *
+         * @return the number of the failed calls.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Gets the number of the running calls.
+         *
+         * @return the number of the running calls.
+         */
+        public long getActive() {
+            return active.sum();
+        }
+
+        /**
+         * Gets the number of the received entity bytes.
+         *
+         * @return the number of the received entity bytes.
+         */
+        public long getReceived() {
+            return received.sum();
+        }
+
+        /**
+         * Gets the number of the sent entity bytes.
+         *
+         * @return the number of the sent entity bytes.
+         */
+        public long getSent() {
+            return sent.sum();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The prometheus endpoint of the logger metrics.
+ * <p>
+ * The filter is not a discovered provider, it is registered at build time only if the metrics are enabled,
+ * see the {@code org.lorislab.jel.logger.metrics.enabled} configuration. The {@code GET} request
+ * of the {@value #PATH} path is answered before the resource matching, the other requests are not changed.
+ * The metrics are rendered before the response is written.
+ *
+ * @author Andrej Petras
+ */
+@PreMatching
+public class LoggerMetricsFilter implements ContainerRequestFilter {
+
+    /**
+     * The path of the endpoint.
+     */
+    static final String PATH = "jel-log/metrics";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!LoggerMetrics.ENABLED || !HttpMethod.GET.equals(requestContext.getMethod()) || !isPath(requestContext.getUriInfo().getPath())) {
+            return;
+        }
+        StringBuilder metrics = LoggerPrometheus.render();
+        StreamingOutput output = stream -> {
+            Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            writer.append(metrics);
+            writer.flush();
+        };
+        requestContext.abortWith(Response.ok(output, LoggerPrometheus.CONTENT_TYPE).build());
+    }
+
+    /**
+     * Returns {@code true} if the request path is the path of the endpoint.
+     *
+     * @param path the request path relative to the application path.
+     * @return the endpoint path flag.
+     */
+    private static boolean isPath(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+        return end - start == PATH.length() && path.startsWith(PATH, start);
+    }
+}
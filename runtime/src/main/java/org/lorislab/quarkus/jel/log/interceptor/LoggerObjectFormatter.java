@@ -0,0 +1,382 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The object graph formatter of the classes without the mapping function.
+ * <p>
+ * The field getters of the class are resolved once. The fields with the {@link LoggerExclude}
+ * annotation are masked, the static and transient fields are ignored. The object graph is rendered
+ * up to the maximum depth and the maximum number of nodes, the cycles are detected by the identity
+ * of the objects on the current path. The depth, the nodes and the path are shared by the objects
+ * of the one parameter, including the objects nested in the collections, maps and arrays.
+ * The synthetic and proxy classes are rendered with the {@code toString} method, the fields of the proxy
+ * are not read. The formatter is disabled by default, see the {@code org.lorislab.jel.logger.object.enabled} configuration.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerObjectFormatter {
+
+    /**
+     * The object formatter mapping function.
+     */
+    static final Function<Object, String> OBJECT = LoggerObjectFormatter::format;
+
+    /**
+     * The object formatter enabled flag.
+     */
+    private static final boolean ENABLED;
+
+    /**
+     * The maximum depth of the object graph.
+     */
+    private static final int MAX_DEPTH;
+
+    /**
+     * The maximum number of the rendered objects.
+     */
+    private static final int MAX_NODES;
+
+    /**
+     * The package prefixes of the classes rendered with the {@code toString} method.
+     */
+    private static final String[] PLATFORM = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+    /**
+     * The name suffixes of the generated proxy classes.
+     */
+    private static final String[] PROXY = {"_ClientProxy", "_Subclass"};
+
+    /**
+     * The interface names of the proxy classes.
+     */
+    private static final String[] PROXY_INTERFACES = {"org.hibernate.proxy.HibernateProxy", "javassist.util.proxy.ProxyObject"};
+
+    /**
+     * The rendering state of the current thread.
+     */
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    /**
+     * The method type of the field getter.
+     */
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * The field accessors by the class.
+     */
+    private static final ClassValue<Accessor[]> ACCESSORS = new ClassValue<Accessor[]>() {
+        @Override
+        protected Accessor[] computeValue(Class<?> type) {
+            return accessors(type);
+        }
+    };
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        ENABLED = config.getOptionalValue("org.lorislab.jel.logger.object.enabled", Boolean.class).orElse(false);
+        MAX_DEPTH = Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.object.depth", Integer.class).orElse(3));
+        MAX_NODES = Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.object.nodes", Integer.class).orElse(64));
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerObjectFormatter() {
+        // empty constructor
+    }
+
+    /**
+     * Returns {@code true} if the object formatter is used for the class.
+     *
+     * @param type the class.
+     * @return the object formatter flag.
+     */
+    static boolean supports(Class<?> type) {
+        if (!ENABLED || type.isPrimitive() || type.isArray() || type.isSynthetic()) {
+            return false;
+        }
+        String name = type.getName();
+        for (String prefix : PLATFORM) {
+            if (name.startsWith(prefix)) {
+                return false;
+            }
+        }
+        return !proxy(type);
+    }
+
+    /**
+     * Returns {@code true} if the class is the generated proxy class.
+     *
+     * @param type the class.
+     * @return the proxy class flag.
+     */
+    private static boolean proxy(Class<?> type) {
+        String name = type.getName();
+        if (name.contains("$$") || Proxy.isProxyClass(type)) {
+            return true;
+        }
+        for (String suffix : PROXY) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Class<?> item : clazz.getInterfaces()) {
+                for (String proxy : PROXY_INTERFACES) {
+                    if (proxy.equals(item.getName())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts the rendering of the parameter. The object nodes and the path of the previous parameter
+     * are cleared unless the rendering of the object graph is in progress.
+     * The method is called for the top-level collection, map and array.
+     */
+    static void reset() {
+        State state = STATE.get();
+        if (state.level == 0) {
+            state.nodes = 0;
+            state.depth = 0;
+            state.path.clear();
+        }
+    }
+
+    /**
+     * Mapping method for the object graph.
+     * The object nested in the collection, map or array of the rendered object graph
+     * continues with the depth, the nodes and the path of the object graph.
+     *
+     * @param parameter to map.
+     * @return the corresponding string result for the log.
+     */
+    static String format(Object parameter) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, parameter, Integer.MAX_VALUE);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the object graph. The fields are not rendered after the end position.
+     *
+     * @param sb        the string builder.
+     * @param parameter the object.
+     * @param end       the end position of the string builder.
+     */
+    static void append(StringBuilder sb, Object parameter, int end) {
+        State state = STATE.get();
+        int depth = 0;
+        if (state.level > 0) {
+            depth = state.depth + 1;
+        } else if (!LoggerBuilderService.nested()) {
+            reset();
+        }
+        state.level++;
+        try {
+            append(sb, parameter, depth, state, end);
+        } finally {
+            state.level--;
+        }
+    }
+
+    /**
+     * Appends the object.
+     *
+     * @param sb    the string builder.
+     * @param value the object.
+     * @param depth the depth of the object.
+     * @param state the rendering state.
+     * @param end   the end position of the string builder.
+     */
+    private static void append(StringBuilder sb, Object value, int depth, State state, int end) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (depth > 0) {
+            Function<Object, String> fn = LoggerBuilderService.getFunction(type);
+            if (fn != OBJECT) {
+                int tmp = state.depth;
+                state.depth = depth;
+                try {
+                    LoggerBuilderService.appendElement(sb, value, end);
+                } finally {
+                    state.depth = tmp;
+                }
+                return;
+            }
+        }
+        sb.append(type.getSimpleName());
+        if (++state.nodes > MAX_NODES || depth >= MAX_DEPTH) {
+            sb.append("{...}");
+            return;
+        }
+        if (!state.path.add(value)) {
+            sb.append("{cycle}");
+            return;
+        }
+        sb.append('{');
+        Accessor[] accessors = ACCESSORS.get(type);
+        for (int i = 0; i < accessors.length && sb.length() < end; i++) {
+            Accessor accessor = accessors[i];
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(accessor.name).append('=');
+            if (accessor.mask != null) {
+                sb.append(accessor.mask);
+            } else {
+                Object item;
+                try {
+                    item = (Object) accessor.getter.invokeExact(value);
+                } catch (Throwable ex) {
+                    sb.append('?');
+                    continue;
+                }
+                if (accessor.primitive) {
+                    sb.append(item);
+                } else {
+                    append(sb, item, depth + 1, state, end);
+                }
+            }
+        }
+        sb.append('}');
+        state.path.remove(value);
+    }
+
+    /**
+     * Creates the field accessors of the class.
+     *
+     * @param type the class.
+     * @return the field accessors.
+     */
+    private static Accessor[] accessors(Class<?> type) {
+        List<Accessor> result = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            List<Accessor> fields = new ArrayList<>();
+            for (Field field : clazz.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                LoggerExclude exclude = field.getAnnotation(LoggerExclude.class);
+                if (exclude != null) {
+                    fields.add(new Accessor(field.getName(), null, exclude.mask().isEmpty() ? field.getName() : exclude.mask(), false));
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER);
+                    fields.add(new Accessor(field.getName(), getter, null, field.getType().isPrimitive()));
+                } catch (RuntimeException | IllegalAccessException ex) {
+                    // skip the not accessible field
+                }
+            }
+            result.addAll(0, fields);
+        }
+        return result.toArray(new Accessor[0]);
+    }
+
+    /**
+     * The rendering state of the parameter.
+     */
+    private static final class State {
+
+        /**
+         * The objects on the current path.
+         */
+        private final Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * The number of the rendered objects.
+         */
+        private int nodes;
+
+        /**
+         * The depth of the object rendered with the mapping function.
+         */
+        private int depth;
+
+        /**
+         * The number of the active object graph renderings.
+         */
+        private int level;
+    }
+
+    /**
+     * The field accessor.
+     */
+    private static final class Accessor {
+
+        /**
+         * The field name.
+         */
+        private final String name;
+
+        /**
+         * The field getter.
+         */
+        private final MethodHandle getter;
+
+        /**
+         * The mask of the excluded field.
+         */
+        private final String mask;
+
+        /**
+         * The primitive field flag.
+         */
+        private final boolean primitive;
+
+        /**
+         * The default constructor.
+         *
+         * @param name      the field name.
+         * @param getter    the field getter.
+         * @param mask      the mask of the excluded field.
+         * @param primitive the primitive field flag.
+         */
+        Accessor(String name, MethodHandle getter, String mask, boolean primitive) {
+            this.name = name;
+            this.getter = getter;
+            this.mask = mask;
+            this.primitive = primitive;
+        }
+    }
+}
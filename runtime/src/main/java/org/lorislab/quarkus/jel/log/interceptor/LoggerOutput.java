@@ -0,0 +1,367 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The output of the interceptor log records.
+ * <p>
+ * In the default mode the records are emitted on the caller thread. In the asynchronous mode
+ * the lazy messages are published to the {@link LoggerRingBuffer} together with the copy of the
+ * non-empty MDC, the consumer thread renders and emits them in batches. The name of the caller
+ * thread is available in the {@value #THREAD} MDC key of the emitted record.
+ *
+ * @author Andrej Petras
+ */
+public final class LoggerOutput {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger log = LoggerFactory.getLogger(LoggerOutput.class);
+
+    /**
+     * The policy of the full buffer.
+     */
+    public enum Policy {
+
+        /**
+         * Drop the record.
+         */
+        DROP,
+
+        /**
+         * Wait for the free slot.
+         */
+        BLOCK;
+    }
+
+    /**
+     * The MDC key of the caller thread name in the asynchronous mode.
+     */
+    public static final String THREAD = "jel.thread";
+
+    /**
+     * The asynchronous mode flag.
+     */
+    private static final boolean ASYNC;
+
+    /**
+     * The full buffer policy.
+     */
+    private static final Policy POLICY;
+
+    /**
+     * The maximum number of the events emitted in one batch.
+     */
+    private static final int BATCH;
+
+    /**
+     * The park time of the idle consumer thread.
+     */
+    private static final long IDLE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The ring buffer.
+     */
+    private static final LoggerRingBuffer BUFFER;
+
+    /**
+     * The number of the dropped events.
+     */
+    private static final LongAdder DROPPED = new LongAdder();
+
+    /**
+     * The running flag of the consumer thread.
+     */
+    private static volatile boolean running;
+
+    /**
+     * The stopped flag of the consumer thread. The records published after the stop are emitted by the publisher.
+     */
+    private static volatile boolean stopped;
+
+    /**
+     * The consumer thread.
+     */
+    private static Thread consumer;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        ASYNC = config.getOptionalValue("org.lorislab.jel.logger.async.enabled", Boolean.class).orElse(false);
+        POLICY = Policy.valueOf(config.getOptionalValue("org.lorislab.jel.logger.async.policy", String.class).orElse(Policy.BLOCK.name()).toUpperCase());
+        BATCH = Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.async.batch", Integer.class).orElse(256));
+        if (ASYNC) {
+            BUFFER = new LoggerRingBuffer(config.getOptionalValue("org.lorislab.jel.logger.async.capacity", Integer.class).orElse(8192));
+            start();
+        } else {
+            BUFFER = null;
+        }
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerOutput() {
+        // empty constructor
+    }
+
+    /**
+     * Gets the number of the dropped records.
+     *
+     * @return the number of the dropped records.
+     */
+    public static long getDropped() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * Returns {@code true} if the asynchronous mode is enabled.
+     *
+     * @return the asynchronous mode flag.
+     */
+    public static boolean isAsync() {
+        return ASYNC;
+    }
+
+    /**
+     * Emit the info record.
+     *
+     * @param logger  the logger.
+     * @param message the message.
+     */
+    static void info(Logger logger, Object message) {
+        if (ASYNC) {
+            publish(logger, false, message, null);
+        } else {
+            logger.info("{}", message);
+        }
+    }
+
+    /**
+     * Emit the error record.
+     *
+     * @param logger  the logger.
+     * @param message the message.
+     */
+    static void error(Logger logger, Object message) {
+        if (ASYNC) {
+            publish(logger, true, message, null);
+        } else {
+            logger.error("{}", message);
+        }
+    }
+
+    /**
+     * Emit the error record with the exception.
+     *
+     * @param logger    the logger.
+     * @param message   the message.
+     * @param throwable the exception.
+     */
+    static void error(Logger logger, String message, Throwable throwable) {
+        if (ASYNC) {
+            publish(logger, true, message, throwable);
+        } else {
+            logger.error(message, throwable);
+        }
+    }
+
+    /**
+     * Publish the record to the ring buffer. The message is rendered on the consumer thread.
+     *
+     * @param logger    the logger.
+     * @param error     the error level flag.
+     * @param message   the message.
+     * @param throwable the exception.
+     */
+    private static void publish(Logger logger, boolean error, Object message, Throwable throwable) {
+        if (!running) {
+            emit(logger, error, message, throwable);
+            return;
+        }
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        if (mdc != null && mdc.isEmpty()) {
+            mdc = null;
+        }
+        String thread = Thread.currentThread().getName();
+        while (!BUFFER.offer(logger, error, message, throwable, mdc, thread)) {
+            if (POLICY == Policy.DROP) {
+                DROPPED.increment();
+                return;
+            }
+            if (!running) {
+                emit(logger, error, message, throwable);
+                return;
+            }
+            LockSupport.parkNanos(IDLE);
+        }
+        if (stopped) {
+            flush();
+        }
+    }
+
+    /**
+     * Renders the message. The failed rendering does not fail the caller like in the logger.
+     *
+     * @param message the message.
+     * @return the rendered message.
+     */
+    private static String render(Object message) {
+        try {
+            return String.valueOf(message);
+        } catch (Throwable ex) {
+            log.error("Error render the log record", ex);
+            return "[FAILED toString()]";
+        }
+    }
+
+    /**
+     * Emit the record of the ring buffer with the MDC of the caller thread. The MDC of the emitting
+     * thread is restored after the record, the publisher thread may emit the records after the stop.
+     *
+     * @param logger    the logger.
+     * @param error     the error level flag.
+     * @param message   the lazy message.
+     * @param throwable the exception.
+     * @param mdc       the MDC of the caller thread or {@code null}.
+     * @param thread    the name of the caller thread.
+     */
+    static void emit(Logger logger, boolean error, Object message, Throwable throwable, Map<String, String> mdc, String thread) {
+        String text = render(message);
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        } else {
+            MDC.clear();
+        }
+        MDC.put(THREAD, thread);
+        try {
+            emit(logger, error, text, throwable);
+        } finally {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    /**
+     * Emit the record on the caller thread.
+     *
+     * @param logger    the logger.
+     * @param error     the error level flag.
+     * @param message   the message.
+     * @param throwable the exception.
+     */
+    static void emit(Logger logger, boolean error, Object message, Throwable throwable) {
+        if (error) {
+            if (throwable != null) {
+                logger.error(String.valueOf(message), throwable);
+            } else {
+                logger.error("{}", message);
+            }
+        } else {
+            logger.info("{}", message);
+        }
+    }
+
+    /**
+     * Starts the consumer thread in the asynchronous mode.
+     */
+    static synchronized void start() {
+        if (ASYNC && consumer == null) {
+            stopped = false;
+            running = true;
+            consumer = new Thread(LoggerOutput::consume, "jel-log-async");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+    }
+
+    /**
+     * Stops the consumer thread and emits the remaining records.
+     */
+    static synchronized void shutdown() {
+        if (consumer != null) {
+            running = false;
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (!consumer.isAlive()) {
+                stopped = true;
+                flush();
+            }
+            consumer = null;
+        }
+    }
+
+    /**
+     * Emits the records published after the stop of the consumer thread.
+     */
+    private static synchronized void flush() {
+        while (true) {
+            try {
+                if (BUFFER.drain(Integer.MAX_VALUE) == 0) {
+                    return;
+                }
+            } catch (Throwable ex) {
+                log.error("Error emit the log record", ex);
+            }
+        }
+    }
+
+    /**
+     * The consumer thread loop.
+     */
+    private static void consume() {
+        long dropped = 0;
+        while (true) {
+            int count = 0;
+            try {
+                count = BUFFER.drain(BATCH);
+            } catch (Throwable ex) {
+                log.error("Error emit the log record", ex);
+                continue;
+            }
+            long tmp = DROPPED.sum();
+            if (tmp != dropped) {
+                log.warn("The log buffer [{}] is full, dropped {} records.", BUFFER.capacity(), tmp - dropped);
+                dropped = tmp;
+            }
+            if (count == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE);
+            }
+        }
+    }
+}
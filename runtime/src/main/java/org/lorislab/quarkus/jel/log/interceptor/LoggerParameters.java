@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The precomputed parameter formatters of the intercepted method.
+ * <p>
+ * The exclusion of the parameter is resolved at build time or once with reflection.
+ * The parameter with the final declared type has the formatter resolved once,
+ * the other parameters use the dispatch of the {@link LoggerBuilderService}.
+ * The rendered parameters are limited by the parameter and parameters length configuration,
+ * the character sequence parameter is copied only up to the limit and the collection, map, array
+ * and object parameters stop the rendering at the limit.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerParameters {
+
+    /**
+     * The parameter masks. The {@code null} value means the parameter is not excluded.
+     */
+    private final String[] masks;
+
+    /**
+     * The parameter formatters. The {@code null} value means the formatter is resolved by the class of the value.
+     */
+    private final Function<Object, String>[] formatters;
+
+    /**
+     * The logger builder service.
+     */
+    private final LoggerBuilderService service;
+
+    /**
+     * The default constructor.
+     *
+     * @param masks      the parameter masks.
+     * @param formatters the parameter formatters.
+     * @param service    the logger builder service.
+     */
+    private LoggerParameters(String[] masks, Function<Object, String>[] formatters, LoggerBuilderService service) {
+        this.masks = masks;
+        this.formatters = formatters;
+        this.service = service;
+    }
+
+    /**
+     * Creates the parameter formatters.
+     *
+     * @param method   the method.
+     * @param excludes the build time parameter masks, empty value for not excluded parameter
+     *                 or {@code null} if the method is not known at build time.
+     * @param service  the logger builder service.
+     * @return the corresponding parameter formatters.
+     */
+    static LoggerParameters create(Method method, List<String> excludes, LoggerBuilderService service) {
+        Class<?>[] types = method.getParameterTypes();
+        String[] masks = new String[types.length];
+        if (excludes != null) {
+            for (int i = 0; i < excludes.size() && i < masks.length; i++) {
+                String mask = excludes.get(i);
+                if (!mask.isEmpty()) {
+                    masks[i] = mask;
+                }
+            }
+        } else {
+            Parameter[] parameters = method.getParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                LoggerExclude pa = parameters[i].getAnnotation(LoggerExclude.class);
+                if (pa != null) {
+                    masks[i] = pa.mask().isEmpty() ? parameters[i].getName() : pa.mask();
+                }
+            }
+        }
+
+        Function<Object, String>[] formatters = formatters(types.length);
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type.isPrimitive()) {
+                formatters[i] = service.getFormatter(wrapper(type));
+            } else if (Modifier.isFinal(type.getModifiers()) && !type.isArray()) {
+                formatters[i] = service.getFormatter(type);
+            }
+        }
+        return new LoggerParameters(masks, formatters, service);
+    }
+
+    /**
+     * Creates the array of the formatters.
+     *
+     * @param size the size of the array.
+     * @return the array of the formatters.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, String>[] formatters(int size) {
+        return (Function<Object, String>[]) new Function<?, ?>[size];
+    }
+
+    /**
+     * Gets the wrapper class of the primitive type. The boxed parameter value has the wrapper class.
+     *
+     * @param type the primitive type.
+     * @return the corresponding wrapper class.
+     */
+    private static Class<?> wrapper(Class<?> type) {
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == short.class) {
+            return Short.class;
+        }
+        return type;
+    }
+
+    /**
+     * Gets the list of string corresponding to the list of parameters.
+     *
+     * @param values the list of parameters.
+     * @return the list of string corresponding to the list of parameters.
+     */
+    String getValuesString(Object[] values) {
+        if (values != null && values.length > 0) {
+            int limit = LoggerConfiguration.PARAMETERS_LIMIT;
+            StringBuilder sb = LoggerBuffer.acquire();
+            for (int index = 0; index < values.length; index++) {
+                if (index > 0) {
+                    sb.append(',');
+                }
+                int remaining = LoggerConfiguration.PARAMETER_LIMIT;
+                if (limit > 0) {
+                    if (sb.length() >= limit) {
+                        sb.append("...(+").append(values.length - index).append(" parameters)");
+                        break;
+                    }
+                    remaining = remaining > 0 ? Math.min(remaining, limit - sb.length()) : limit - sb.length();
+                }
+                if (index < masks.length && masks[index] != null) {
+                    LoggerConfiguration.append(sb, masks[index], remaining);
+                } else {
+                    append(sb, service, index < formatters.length ? formatters[index] : null, values[index], remaining);
+                }
+            }
+            return LoggerBuffer.release(sb);
+        }
+        return "";
+    }
+
+    /**
+     * Gets the string corresponding to the value limited by the parameter length configuration.
+     *
+     * @param service the logger builder service.
+     * @param value   the value.
+     * @return the corresponding log value.
+     */
+    static String getValueString(LoggerBuilderService service, Object value) {
+        if (LoggerConfiguration.PARAMETER_LIMIT <= 0) {
+            return service.getParameterValue(value);
+        }
+        StringBuilder sb = LoggerBuffer.acquire();
+        append(sb, service, null, value, LoggerConfiguration.PARAMETER_LIMIT);
+        return LoggerBuffer.release(sb);
+    }
+
+    /**
+     * Appends the parameter log value.
+     *
+     * @param sb        the string builder.
+     * @param service   the logger builder service.
+     * @param formatter the formatter or {@code null} to resolve the formatter by the class of the value.
+     * @param value     the parameter value.
+     * @param limit     the maximum number of characters or {@code 0} for unlimited.
+     */
+    private static void append(StringBuilder sb, LoggerBuilderService service, Function<Object, String> formatter, Object value, int limit) {
+        if (value == null) {
+            sb.append((String) null);
+            return;
+        }
+        Function<Object, String> fn = formatter != null ? formatter : service.getFormatter(value.getClass());
+        LoggerBuilderService.append(sb, fn, value, limit > 0 ? sb.length() + limit : Integer.MAX_VALUE);
+    }
+}
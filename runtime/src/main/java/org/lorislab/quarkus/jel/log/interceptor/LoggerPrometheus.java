@@ -0,0 +1,285 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The prometheus text format of the {@link LoggerMetrics}.
+ * <p>
+ * The series are rendered into the buffer of the call without the lock, the buffer is written
+ * to the response after the rendering. The histogram buckets are counted without the snapshot of the histogram.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerPrometheus {
+
+    /**
+     * The content type of the prometheus text format.
+     */
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * The initial size of the buffer.
+     */
+    private static final int CAPACITY = 8 * 1024;
+
+    /**
+     * The histogram bucket bounds in nanoseconds. The last bound is the {@code +Inf} bucket.
+     */
+    private static final long[] BOUNDS;
+
+    /**
+     * The histogram bucket labels.
+     */
+    private static final String[] LABELS;
+
+    /**
+     * The labels of the service metrics.
+     */
+    private static final String[] SERVICE_LABELS = {"class", "method"};
+
+    /**
+     * The labels of the rest resource metrics.
+     */
+    private static final String[] REST_LABELS = {"method", "path"};
+
+    /**
+     * The labels of the rest client metrics.
+     */
+    private static final String[] CLIENT_LABELS = {"host"};
+
+    static {
+        String[] items = ConfigProvider.getConfig().getOptionalValue("org.lorislab.jel.logger.metrics.buckets", String.class)
+                .orElse("0.001,0.005,0.01,0.025,0.05,0.1,0.25,0.5,1,2.5,5,10").split(",");
+        BOUNDS = new long[items.length + 1];
+        LABELS = new String[items.length + 1];
+        for (int i = 0; i < items.length; i++) {
+            BigDecimal value = new BigDecimal(items[i].trim());
+            BOUNDS[i] = value.movePointRight(9).longValue();
+            LABELS[i] = value.toPlainString();
+        }
+        BOUNDS[items.length] = Long.MAX_VALUE;
+        LABELS[items.length] = "+Inf";
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerPrometheus() {
+        // empty constructor
+    }
+
+    /**
+     * Renders the metrics in the prometheus text format.
+     *
+     * @return the buffer with the metrics.
+     */
+    static StringBuilder render() {
+        StringBuilder sb = new StringBuilder(CAPACITY);
+        Map<String, List<LoggerMetrics.Series>> services = new LinkedHashMap<>();
+        for (int i = 0; i < LoggerMethodTable.size(); i++) {
+            LoggerMethod method = LoggerMethodTable.get(i);
+            if (method != null) {
+                add(services, method, method.getSeries());
+            }
+        }
+        Map<String, List<LoggerMetrics.Series>> resources = new LinkedHashMap<>();
+        LoggerMetrics.resources().forEach((k, v) -> resources.computeIfAbsent(k, x -> new ArrayList<>(1)).add(v));
+        Map<String, List<LoggerMetrics.Series>> clients = new LinkedHashMap<>();
+        LoggerMetrics.clients().forEach((k, v) -> clients.computeIfAbsent(k, x -> new ArrayList<>(1)).add(v));
+
+        long[] counts = new long[BOUNDS.length];
+        long[] totals = new long[BOUNDS.length];
+        render(sb, "jel_service", SERVICE_LABELS, services, false, counts, totals);
+        render(sb, "jel_rest", REST_LABELS, resources, true, counts, totals);
+        render(sb, "jel_client", CLIENT_LABELS, clients, true, counts, totals);
+        return sb;
+    }
+
+    /**
+     * Adds the method series to the map. The overloaded methods share the labels.
+     *
+     * @param map    the series by the labels.
+     * @param method the logger method.
+     * @param series the method metrics or {@code null}.
+     */
+    private static void add(Map<String, List<LoggerMetrics.Series>> map, LoggerMethod method, LoggerMetrics.Series series) {
+        if (series != null) {
+            map.computeIfAbsent(method.className + '\u0000' + method.methodName, x -> new ArrayList<>(1)).add(series);
+        }
+    }
+
+    /**
+     * Renders the metric family.
+     *
+     * @param sb     the buffer.
+     * @param name   the metric name prefix.
+     * @param labels the names of the labels.
+     * @param map    the series by the labels.
+     * @param entity the entity bytes metrics flag.
+     * @param tmp    the bucket counts of the histogram.
+     * @param total  the bucket counts of the series.
+     */
+    private static void render(StringBuilder sb, String name, String[] labels, Map<String, List<LoggerMetrics.Series>> map, boolean entity,
+                               long[] tmp, long[] total) {
+        if (map.isEmpty()) {
+            return;
+        }
+        sb.append("# TYPE ").append(name).append("_calls_total counter\n");
+        for (Map.Entry<String, List<LoggerMetrics.Series>> e : map.entrySet()) {
+            long count = 0;
+            for (LoggerMetrics.Series series : e.getValue()) {
+                count += series.histogram.getCount();
+            }
+            series(sb, name, "_calls_total", labels, e.getKey(), null).append(count).append('\n');
+        }
+        sb.append("# TYPE ").append(name).append("_failures_total counter\n");
+        for (Map.Entry<String, List<LoggerMetrics.Series>> e : map.entrySet()) {
+            long count = 0;
+            for (LoggerMetrics.Series series : e.getValue()) {
+                count += series.getFailures();
+            }
+            series(sb, name, "_failures_total", labels, e.getKey(), null).append(count).append('\n');
+        }
+        sb.append("# TYPE ").append(name).append("_active gauge\n");
+        for (Map.Entry<String, List<LoggerMetrics.Series>> e : map.entrySet()) {
+            long count = 0;
+            for (LoggerMetrics.Series series : e.getValue()) {
+                count += series.getActive();
+            }
+            series(sb, name, "_active", labels, e.getKey(), null).append(count).append('\n');
+        }
+        if (entity && LoggerEntityCounter.COUNT) {
+            sb.append("# TYPE ").append(name).append("_received_bytes_total counter\n");
+            for (Map.Entry<String, List<LoggerMetrics.Series>> e : map.entrySet()) {
+                long count = 0;
+                for (LoggerMetrics.Series series : e.getValue()) {
+                    count += series.getReceived();
+                }
+                series(sb, name, "_received_bytes_total", labels, e.getKey(), null).append(count).append('\n');
+                }
+            sb.append("# TYPE ").append(name).append("_sent_bytes_total counter\n");
+            for (Map.Entry<String, List<LoggerMetrics.Series>> e : map.entrySet()) {
+                long count = 0;
+                for (LoggerMetrics.Series series : e.getValue()) {
+                    count += series.getSent();
+                }
+                series(sb, name, "_sent_bytes_total", labels, e.getKey(), null).append(count).append('\n');
+                }
+        }
+        sb.append("# TYPE ").append(name).append("_duration_seconds histogram\n");
+        for (Map.Entry<String, List<LoggerMetrics.Series>> e : map.entrySet()) {
+            Arrays.fill(total, 0);
+            long sum = 0;
+            for (LoggerMetrics.Series series : e.getValue()) {
+                series.histogram.countsBelow(BOUNDS, tmp);
+                for (int i = 0; i < tmp.length; i++) {
+                    total[i] += tmp[i];
+                }
+                sum += series.histogram.getSum();
+            }
+            for (int i = 0; i < BOUNDS.length; i++) {
+                series(sb, name, "_duration_seconds_bucket", labels, e.getKey(), LABELS[i]).append(total[i]).append('\n');
+            }
+            seconds(series(sb, name, "_duration_seconds_sum", labels, e.getKey(), null), sum).append('\n');
+            series(sb, name, "_duration_seconds_count", labels, e.getKey(), null).append(total[total.length - 1]).append('\n');
+        }
+    }
+
+    /**
+     * Appends the series name and labels.
+     *
+     * @param sb     the buffer.
+     * @param name   the metric name prefix.
+     * @param suffix the metric name suffix.
+     * @param labels the names of the labels.
+     * @param key    the label values separated by the zero character.
+     * @param le     the bucket label or {@code null}.
+     * @return the buffer.
+     */
+    private static StringBuilder series(StringBuilder sb, String name, String suffix, String[] labels, String key, String le) {
+        sb.append(name).append(suffix).append('{');
+        int start = 0;
+        for (int i = 0; i < labels.length; i++) {
+            int end = i == labels.length - 1 ? key.length() : key.indexOf('\u0000', start);
+            if (end < 0) {
+                end = key.length();
+            }
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"");
+            escape(sb, key, start, end);
+            sb.append('"');
+            start = Math.min(end + 1, key.length());
+        }
+        if (le != null) {
+            sb.append(",le=\"").append(le).append('"');
+        }
+        return sb.append("} ");
+    }
+
+    /**
+     * Appends the escaped label value.
+     *
+     * @param sb    the buffer.
+     * @param value the label value.
+     * @param start the start index.
+     * @param end   the end index.
+     */
+    private static void escape(StringBuilder sb, String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Appends the nanoseconds as the seconds.
+     *
+     * @param sb    the buffer.
+     * @param nanos the value in nanoseconds.
+     * @return the buffer.
+     */
+    private static StringBuilder seconds(StringBuilder sb, long nanos) {
+        sb.append(nanos / 1_000_000_000L).append('.');
+        long fraction = nanos % 1_000_000_000L;
+        for (long i = 100_000_000L; i > 1 && fraction < i; i = i / 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+}
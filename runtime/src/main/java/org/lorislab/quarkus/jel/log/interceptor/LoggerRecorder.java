@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import io.quarkus.runtime.ShutdownContext;
+import io.quarkus.runtime.annotations.Recorder;
+
+import java.util.List;
+
+/**
+ * The logger recorder.
+ *
+ * @author Andrej Petras
+ */
+@Recorder
+public class LoggerRecorder {
+
+    /**
+     * Initialize the logger method table and the logger output.
+     * The logger output and the scheduler are stopped and the binary log is flushed on shutdown.
+     *
+     * @param items    the build time method items.
+     * @param shutdown the shutdown context.
+     */
+    public void init(List<LoggerMethodItem> items, ShutdownContext shutdown) {
+        LoggerMethodTable.init(items);
+        LoggerOutput.start();
+        shutdown.addShutdownTask(LoggerOutput::shutdown);
+        shutdown.addShutdownTask(LoggerScheduler::shutdown);
+        shutdown.addShutdownTask(LoggerBinarySink::shutdown);
+    }
+}
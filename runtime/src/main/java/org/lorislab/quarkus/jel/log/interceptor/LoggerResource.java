@@ -0,0 +1,335 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The path template of the rest resource method.
+ * <p>
+ * The template is resolved once per resource method from the {@link Path} annotations of the resource
+ * class and the method. The template is the low cardinality key of the resource metrics.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerResource {
+
+    /**
+     * The invoked method property of the microprofile rest client.
+     */
+    static final String INVOKED_METHOD = "org.eclipse.microprofile.rest.client.invokedMethod";
+
+    /**
+     * The resources by the resource method of the resource class.
+     */
+    private static final ClassValue<ConcurrentMap<Method, LoggerResource>> RESOURCES = new ClassValue<ConcurrentMap<Method, LoggerResource>>() {
+        @Override
+        protected ConcurrentMap<Method, LoggerResource> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * The path template.
+     */
+    final String path;
+
+    /**
+     * The HTTP method or {@code null} for the sub-resource locator.
+     */
+    final String verb;
+
+    /**
+     * The metrics key.
+     */
+    final String key;
+
+    /**
+     * The metrics.
+     */
+    private volatile LoggerMetrics.Series series;
+
+    /**
+     * The default constructor.
+     *
+     * @param path the path template.
+     * @param verb the HTTP method.
+     */
+    private LoggerResource(String path, String verb) {
+        this.path = path;
+        this.verb = verb;
+        this.key = (verb == null ? "*" : verb) + '\u0000' + path;
+    }
+
+    /**
+     * Gets the resource of the resource method.
+     *
+     * @param clazz  the resource class.
+     * @param method the resource method.
+     * @return the corresponding resource.
+     */
+    static LoggerResource get(Class<?> clazz, Method method) {
+        ConcurrentMap<Method, LoggerResource> map = RESOURCES.get(clazz);
+        LoggerResource result = map.get(method);
+        if (result == null) {
+            result = map.computeIfAbsent(method, m -> create(clazz, m));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the path template of the rest client call. The template is resolved from the invoked method
+     * of the rest client interface or the identifiers in the request path are replaced by the {@code {id}}.
+     *
+     * @param invoked the invoked method of the rest client interface or {@code null}.
+     * @param uri     the request URI.
+     * @return the path template.
+     */
+    static String client(Object invoked, URI uri) {
+        if (invoked instanceof Method) {
+            Method method = (Method) invoked;
+            return get(method.getDeclaringClass(), method).path;
+        }
+        return template(uri.getRawPath());
+    }
+
+    /**
+     * Replaces the identifier segments of the path by the {@code {id}}. The segment is the identifier
+     * if it contains only digits or it is the hexadecimal value or UUID with at least 16 characters.
+     *
+     * @param path the request path.
+     * @return the path template.
+     */
+    private static String template(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        StringBuilder sb = LoggerBuffer.acquire();
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (identifier(path, start, end)) {
+                sb.append("{id}");
+            } else {
+                sb.append(path, start, end);
+            }
+            if (end < path.length()) {
+                sb.append('/');
+            }
+            start = end + 1;
+        }
+        return LoggerBuffer.release(sb);
+    }
+
+    /**
+     * Returns {@code true} if the path segment is the identifier.
+     *
+     * @param path  the path.
+     * @param start the start of the segment.
+     * @param end   the end of the segment.
+     * @return the identifier flag.
+     */
+    private static boolean identifier(String path, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        boolean digits = true;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                digits = false;
+                if (Character.digit(c, 16) < 0 && c != '-') {
+                    return false;
+                }
+            }
+        }
+        return digits || end - start >= 16;
+    }
+
+    /**
+     * Gets the metrics. The resources with the same key share the metrics.
+     *
+     * @return the metrics.
+     */
+    LoggerMetrics.Series series() {
+        LoggerMetrics.Series tmp = series;
+        if (tmp == null) {
+            tmp = LoggerMetrics.resource(key);
+            series = tmp;
+        }
+        return tmp;
+    }
+
+    /**
+     * Creates the resource.
+     *
+     * @param clazz  the resource class.
+     * @param method the resource method.
+     * @return the resource.
+     */
+    private static LoggerResource create(Class<?> clazz, Method method) {
+        StringBuilder sb = new StringBuilder();
+        Path path = annotation(clazz, Path.class);
+        if (path != null) {
+            append(sb, path.value());
+        }
+        String verb = null;
+        for (Method item : methods(clazz, method)) {
+            path = item.getAnnotation(Path.class);
+            if (path != null) {
+                append(sb, path.value());
+            }
+            verb = verb(item);
+            if (path != null || verb != null) {
+                break;
+            }
+        }
+        if (sb.length() == 0) {
+            sb.append('/');
+        }
+        return new LoggerResource(sb.toString(), verb);
+    }
+
+    /**
+     * Gets the method and the overridden methods of the super classes and interfaces.
+     *
+     * @param clazz  the resource class.
+     * @param method the resource method.
+     * @return the methods.
+     */
+    private static Deque<Method> methods(Class<?> clazz, Method method) {
+        Deque<Method> result = new ArrayDeque<>();
+        result.add(method);
+        Deque<Class<?>> types = new ArrayDeque<>();
+        types.add(clazz);
+        while (!types.isEmpty()) {
+            Class<?> type = types.poll();
+            try {
+                Method item = type.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                if (!item.equals(method)) {
+                    result.add(item);
+                }
+            } catch (NoSuchMethodException ex) {
+                // the method is not declared in the type
+            }
+            if (type.getSuperclass() != null) {
+                types.add(type.getSuperclass());
+            }
+            for (Class<?> item : type.getInterfaces()) {
+                types.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the annotation of the class or the super classes and interfaces.
+     *
+     * @param clazz the class.
+     * @param type  the annotation type.
+     * @param <T>   the annotation type.
+     * @return the annotation or {@code null}.
+     */
+    private static <T extends Annotation> T annotation(Class<?> clazz, Class<T> type) {
+        Deque<Class<?>> types = new ArrayDeque<>();
+        types.add(clazz);
+        while (!types.isEmpty()) {
+            Class<?> item = types.poll();
+            T result = item.getAnnotation(type);
+            if (result != null) {
+                return result;
+            }
+            if (item.getSuperclass() != null) {
+                types.add(item.getSuperclass());
+            }
+            for (Class<?> tmp : item.getInterfaces()) {
+                types.add(tmp);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the HTTP method of the annotated element.
+     *
+     * @param element the annotated element.
+     * @return the HTTP method or {@code null}.
+     */
+    private static String verb(AnnotatedElement element) {
+        for (Annotation annotation : element.getAnnotations()) {
+            HttpMethod method = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (method != null) {
+                return method.value();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends the path segment. The regular expressions of the path parameters are removed.
+     *
+     * @param sb    the string builder.
+     * @param value the path segment.
+     */
+    private static void append(StringBuilder sb, String value) {
+        if (sb.length() == 0 || sb.charAt(sb.length() - 1) != '/') {
+            sb.append('/');
+        }
+        int depth = 0;
+        boolean regex = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+                if (depth == 0) {
+                    regex = false;
+                }
+            } else if (c == ':' && depth == 1) {
+                regex = true;
+                continue;
+            }
+            if (regex || (c == ' ' && depth > 0) || (c == '/' && sb.charAt(sb.length() - 1) == '/')) {
+                continue;
+            }
+            sb.append(c);
+        }
+        if (sb.length() > 1 && sb.charAt(sb.length() - 1) == '/') {
+            sb.setLength(sb.length() - 1);
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public String toString() {
+        return verb == null ? path : verb + " " + path;
+    }
+}
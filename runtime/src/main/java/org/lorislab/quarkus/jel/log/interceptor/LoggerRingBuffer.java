@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The lock-free bounded multi-producer single-consumer ring buffer of the log events.
+ * <p>
+ * The events are pre-allocated. Each slot has a sequence number which tells the producer
+ * that the slot is free and the consumer that the slot is published.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerRingBuffer {
+
+    /**
+     * The pre-allocated events.
+     */
+    private final Event[] events;
+
+    /**
+     * The sequence number of the slots.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The index mask.
+     */
+    private final int mask;
+
+    /**
+     * The next producer sequence.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The next consumer sequence. Only the consumer thread change this value.
+     */
+    private long head;
+
+    /**
+     * The default constructor.
+     *
+     * @param capacity the minimum capacity. The capacity is rounded to the power of two.
+     */
+    LoggerRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        events = new Event[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event();
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Gets the capacity of the buffer.
+     *
+     * @return the capacity of the buffer.
+     */
+    int capacity() {
+        return events.length;
+    }
+
+    /**
+     * Publish the event.
+     *
+     * @param logger    the logger.
+     * @param error     the error level flag.
+     * @param message   the lazy message. The message is rendered on the consumer thread.
+     * @param throwable the exception or {@code null}.
+     * @param mdc       the MDC of the caller thread or {@code null}.
+     * @param thread    the name of the caller thread.
+     * @return {@code true} if the event was published, {@code false} if the buffer is full.
+     */
+    boolean offer(Logger logger, boolean error, Object message, Throwable throwable, Map<String, String> mdc, String thread) {
+        while (true) {
+            long sequence = tail.get();
+            int index = (int) sequence & mask;
+            long diff = sequences.get(index) - sequence;
+            if (diff == 0) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    Event event = events[index];
+                    event.logger = logger;
+                    event.error = error;
+                    event.message = message;
+                    event.throwable = throwable;
+                    event.mdc = mdc;
+                    event.thread = thread;
+                    sequences.set(index, sequence + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Emit the published events. This method must be called only from the consumer thread.
+     *
+     * @param max the maximum number of the events in the batch.
+     * @return the number of the emitted events.
+     */
+    int drain(int max) {
+        int count = 0;
+        while (count < max) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            Event event = events[index];
+            try {
+                event.emit();
+            } finally {
+                event.clear();
+                sequences.lazySet(index, head + events.length);
+                head++;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * The log event.
+     */
+    private static final class Event {
+
+        /**
+         * The logger.
+         */
+        Logger logger;
+
+        /**
+         * The error level flag.
+         */
+        boolean error;
+
+        /**
+         * The lazy message.
+         */
+        Object message;
+
+        /**
+         * The exception.
+         */
+        Throwable throwable;
+
+        /**
+         * The MDC of the caller thread.
+         */
+        Map<String, String> mdc;
+
+        /**
+         * The name of the caller thread.
+         */
+        String thread;
+
+        /**
+         * Emit the event to the logger.
+         */
+        void emit() {
+            LoggerOutput.emit(logger, error, message, throwable, mdc, thread);
+        }
+
+        /**
+         * Clear the event references.
+         */
+        void clear() {
+            logger = null;
+            message = null;
+            throwable = null;
+            mdc = null;
+            thread = null;
+        }
+    }
+}
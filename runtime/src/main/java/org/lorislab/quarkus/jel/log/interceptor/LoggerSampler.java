@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.slf4j.Logger;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The adaptive sampler of the hot method.
+ * <p>
+ * The calls are counted in one second windows. The first {@code rate} calls of the window are logged,
+ * the next calls are logged 1-in-N where N is the ratio of the previous or current window calls to the rate.
+ * The suppressed calls are counted and periodically logged as the summary record.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerSampler {
+
+    /**
+     * The window length in nanoseconds.
+     */
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The summary period in nanoseconds.
+     */
+    private static final long PERIOD;
+
+    /**
+     * The summary message.
+     */
+    private static final LoggerTemplate messageSummary;
+
+    /**
+     * The summary task.
+     */
+    private static Future<?> summary;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        PERIOD = TimeUnit.SECONDS.toNanos(Math.max(1, config.getOptionalValue("org.lorislab.jel.logger.sampling.summary", Long.class).orElse(60L)));
+        messageSummary = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.sampling.message", String.class).orElse("{0} sampled [{1} suppressed, {2}" + LoggerConfiguration.TIME_UNIT_NAME + " avg, {3}" + LoggerConfiguration.TIME_UNIT_NAME + " max]."));
+    }
+
+    /**
+     * The maximum number of the logged calls per second.
+     */
+    private final long rate;
+
+    /**
+     * The start of the current window.
+     */
+    private final AtomicLong window = new AtomicLong(System.nanoTime());
+
+    /**
+     * The number of the calls in the current window.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sampling step over the rate.
+     */
+    private volatile long step = 1;
+
+    /**
+     * The number of the suppressed calls.
+     */
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * The total duration of the suppressed calls.
+     */
+    private final LongAdder suppressedTime = new LongAdder();
+
+    /**
+     * The maximum duration of the suppressed calls.
+     */
+    private final LongAccumulator suppressedMax = new LongAccumulator(Math::max, 0);
+
+    /**
+     * The default constructor.
+     *
+     * @param rate the maximum number of the logged calls per second.
+     */
+    LoggerSampler(long rate) {
+        this.rate = rate;
+        schedule();
+    }
+
+    /**
+     * Returns {@code true} if the call should be logged.
+     *
+     * @return the sampled flag.
+     */
+    boolean sample() {
+        long now = System.nanoTime();
+        long start = window.get();
+        if (now - start >= WINDOW && window.compareAndSet(start, now)) {
+            step = Math.max(1, count.getAndSet(0) / rate);
+        }
+        long n = count.incrementAndGet();
+        return n <= rate || n % Math.max(step, n / rate) == 0;
+    }
+
+    /**
+     * Records the suppressed call.
+     *
+     * @param nanos the duration of the call in nanoseconds.
+     */
+    void suppressed(long nanos) {
+        suppressed.increment();
+        suppressedTime.add(nanos);
+        suppressedMax.accumulate(nanos);
+    }
+
+    /**
+     * Logs the summary of the suppressed calls and reset the counters.
+     *
+     * @param method the logger method.
+     */
+    private void summary(LoggerMethod method) {
+        long tmp = suppressed.sumThenReset();
+        long time = suppressedTime.sumThenReset();
+        long max = suppressedMax.getThenReset();
+        Logger logger = LoggerEvents.logger(method.logger);
+        if (tmp > 0 && logger.isInfoEnabled()) {
+            LoggerOutput.info(logger, LoggerConfiguration.msg(messageSummary, new Object[]{
+                    method.methodName, tmp, LoggerConfiguration.formatTime(time / tmp), LoggerConfiguration.formatTime(max)
+            }));
+        }
+    }
+
+    /**
+     * Schedules the summary task if it is not running.
+     */
+    private static synchronized void schedule() {
+        if (summary == null || summary.isDone()) {
+            summary = LoggerScheduler.scheduleAtFixedRate(LoggerSampler::summaries, PERIOD);
+        }
+    }
+
+    /**
+     * Logs the summaries of all sampled methods.
+     */
+    private static void summaries() {
+        for (int i = 0; i < LoggerMethodTable.size(); i++) {
+            LoggerMethod method = LoggerMethodTable.get(i);
+            if (method != null && method.sampler != null) {
+                method.sampler.summary(method);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The shared scheduler of the logger tasks.
+ * <p>
+ * The scheduler has one daemon thread which is created on the first scheduled task
+ * and stopped on the application shutdown.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerScheduler {
+
+    /**
+     * The scheduler executor.
+     */
+    private static volatile ScheduledThreadPoolExecutor executor;
+
+    /**
+     * The default constructor.
+     */
+    private LoggerScheduler() {
+        // empty constructor
+    }
+
+    /**
+     * Schedules the periodic task.
+     *
+     * @param task  the task.
+     * @param nanos the period in nanoseconds.
+     * @return the scheduled future or {@code null} if the scheduler is stopped.
+     */
+    static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long nanos) {
+        try {
+            return executor().scheduleAtFixedRate(task, nanos, nanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Stops the scheduler thread. The pending tasks are cancelled, the future of the task
+     * is done and the task can be scheduled again after the restart.
+     */
+    static synchronized void shutdown() {
+        if (executor != null) {
+            for (Runnable task : executor.shutdownNow()) {
+                if (task instanceof Future) {
+                    ((Future<?>) task).cancel(false);
+                }
+            }
+            executor = null;
+        }
+    }
+
+    /**
+     * Gets the scheduler executor.
+     *
+     * @return the scheduler executor.
+     */
+    private static ScheduledThreadPoolExecutor executor() {
+        ScheduledThreadPoolExecutor tmp = executor;
+        if (tmp == null) {
+            synchronized (LoggerScheduler.class) {
+                tmp = executor;
+                if (tmp == null) {
+                    tmp = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread thread = new Thread(r, "jel-log-scheduler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    tmp.setRemoveOnCancelPolicy(true);
+                    tmp.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+                    executor = tmp;
+                }
+            }
+        }
+        return tmp;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code Server-Timing} response header.
+ * <p>
+ * The header contains the total time of the request and the slowest nested calls
+ * of the {@link LoggerCallTree}. The header is disabled by default,
+ * see the {@code org.lorislab.jel.logger.rs.timing} configuration.
+ * <p>
+ * The header is sent to the client, the description of the nested call exposes the name of the called service.
+ * The description is the simple class name and the method name by default, the alias of the method
+ * is defined by the {@code org.lorislab.jel.logger.rs.timing.alias."<class>.<method>"} configuration.
+ * The {@code org.lorislab.jel.logger.rs.timing.names} configuration {@code full} uses the fully qualified
+ * class name and {@code none} sends only the durations without the description.
+ *
+ * @author Andrej Petras
+ */
+final class LoggerServerTiming {
+
+    /**
+     * The header name.
+     */
+    static final String HEADER = "Server-Timing";
+
+    /**
+     * The server timing header enabled flag.
+     */
+    static final boolean ENABLED;
+
+    /**
+     * The maximum number of the nested calls.
+     */
+    private static final int COUNT;
+
+    /**
+     * The maximum length of the header value.
+     */
+    private static final int SIZE;
+
+    /**
+     * The fully qualified class name flag.
+     */
+    private static final boolean FULL;
+
+    /**
+     * The description flag.
+     */
+    private static final boolean DESCRIPTION;
+
+    /**
+     * The alias prefix of the configuration.
+     */
+    private static final String ALIAS = "org.lorislab.jel.logger.rs.timing.alias.";
+
+    /**
+     * The descriptions by the name of the nested call.
+     */
+    private static final Map<Object, String> DESCRIPTIONS = new ConcurrentHashMap<>();
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        ENABLED = config.getOptionalValue("org.lorislab.jel.logger.rs.timing", Boolean.class).orElse(false);
+        COUNT = Math.max(0, config.getOptionalValue("org.lorislab.jel.logger.rs.timing.count", Integer.class).orElse(5));
+        SIZE = Math.max(32, config.getOptionalValue("org.lorislab.jel.logger.rs.timing.size", Integer.class).orElse(512));
+        String names = config.getOptionalValue("org.lorislab.jel.logger.rs.timing.names", String.class).orElse("simple");
+        FULL = "full".equals(names);
+        DESCRIPTION = !"none".equals(names);
+    }
+
+    /**
+     * The default constructor.
+     */
+    private LoggerServerTiming() {
+        // empty constructor
+    }
+
+    /**
+     * Creates the header value of the finished call tree.
+     *
+     * @param tree the finished call tree.
+     * @return the header value.
+     */
+    static String header(LoggerCallTree tree) {
+        StringBuilder sb = LoggerBuffer.acquire();
+        sb.append("total;dur=");
+        millis(sb, tree.getTotal());
+        int[] top = top(tree);
+        for (int i = 0; i < top.length && top[i] > 0; i++) {
+            int length = sb.length();
+            sb.append(", svc").append(i + 1);
+            if (DESCRIPTION) {
+                sb.append(";desc=\"");
+                escape(sb, DESCRIPTIONS.computeIfAbsent(tree.getName(top[i]), LoggerServerTiming::description));
+                sb.append('"');
+            }
+            sb.append(";dur=");
+            millis(sb, tree.getTotal(top[i]));
+            if (sb.length() > SIZE) {
+                sb.setLength(length);
+                break;
+            }
+        }
+        return LoggerBuffer.release(sb);
+    }
+
+    /**
+     * Gets the description of the nested call.
+     *
+     * @param name the name of the nested call.
+     * @return the alias or the class and method name.
+     */
+    private static String description(Object name) {
+        if (!(name instanceof LoggerMethod)) {
+            return String.valueOf(name);
+        }
+        LoggerMethod method = (LoggerMethod) name;
+        String alias = ConfigProvider.getConfig().getOptionalValue(ALIAS + "\"" + method + "\"", String.class).orElse(null);
+        if (alias != null) {
+            return alias;
+        }
+        if (FULL) {
+            return method.toString();
+        }
+        return method.className.substring(method.className.lastIndexOf('.') + 1) + "." + method.methodName;
+    }
+
+    /**
+     * Selects the slowest closed nodes of the tree.
+     *
+     * @param tree the call tree.
+     * @return the node indexes sorted by the total time, the unused slots are {@code 0}.
+     */
+    private static int[] top(LoggerCallTree tree) {
+        int[] result = new int[Math.min(COUNT, tree.size() - 1)];
+        for (int node = 1; node < tree.size(); node++) {
+            long total = tree.getTotal(node);
+            if (total <= 0) {
+                continue;
+            }
+            int i = result.length;
+            while (i > 0 && (result[i - 1] == 0 || tree.getTotal(result[i - 1]) < total)) {
+                i--;
+            }
+            if (i < result.length) {
+                System.arraycopy(result, i, result, i + 1, result.length - i - 1);
+                result[i] = node;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends the nanoseconds as the milliseconds with three fraction digits.
+     *
+     * @param sb    the string builder.
+     * @param nanos the time in nanoseconds.
+     */
+    private static void millis(StringBuilder sb, long nanos) {
+        long micros = nanos / 1_000L;
+        sb.append(micros / 1_000L).append('.');
+        long fraction = micros % 1_000L;
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+
+    /**
+     * Appends the escaped content of the quoted string.
+     *
+     * @param sb    the string builder.
+     * @param value the value.
+     */
+    private static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c < 0x20 || c > 0x7E ? '?' : c);
+        }
+    }
+}
@@ -15,22 +15,15 @@
  */
 package org.lorislab.quarkus.jel.log.interceptor;
 
-import org.eclipse.microprofile.config.Config;
-import org.eclipse.microprofile.config.ConfigProvider;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.annotation.Priority;
 import javax.inject.Inject;
 import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.lang.reflect.Proxy;
-import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -60,52 +53,75 @@ public class LoggerServiceInterceptor {
     public Object methodExecution(final InvocationContext ic) throws Exception {
         Object result;
         Method method = ic.getMethod();
-        String className = getObjectClassName(ic.getTarget());
 
-        LoggerService ano = getLoggerServiceAno(ic.getTarget().getClass(), className, method);
-        if (ano.log()) {
+        LoggerMethod ano = LoggerMethodTable.service(ic.getTarget(), method);
+        if (ano.log) {
 
-            Logger logger = LoggerFactory.getLogger(className);
-            String parameters = getValuesString(ic.getParameters(), method.getParameters());
+            Logger logger = LoggerEvents.logger(ano.logger);
+            boolean sampled = ano.sample();
+            boolean deferred = ano.slow() || !sampled;
 
-            InterceptorContext context = new InterceptorContext(method.getName(), parameters);
-            logger.info("{}", LoggerConfiguration.msgStart(context));
+            // the parameters are rendered lazily, in the slow, single and sampled mode only after the method
+            // returns; snapshot the argument references so that reassigned arguments are not logged. The state
+            // of the argument objects itself is not frozen and is logged as it is at the time of rendering.
+            Object[] values = ic.getParameters();
+            if (values != null && (deferred || LoggerConfiguration.SINGLE)) {
+                values = values.clone();
+            }
+            Object[] arguments = values;
+
+            LoggerParameters parameters = ano.parameters(method, loggerBuilderService);
 
+            InterceptorContext context = new InterceptorContext(method.getName(), () -> parameters.getValuesString(arguments));
+            LoggerEvents.begin(context);
+            LoggerMetrics.start(LoggerMetrics.service(ano));
+            if (LoggerConfiguration.SINGLE) {
+                if (LoggerConfiguration.SINGLE_DEADLINE >= 0 && logger.isInfoEnabled()) {
+                    LoggerDeadline.add(context, ano, logger);
+                }
+            } else if (!deferred && logger.isInfoEnabled()) {
+                LoggerOutput.info(logger, LoggerConfiguration.msgStart(ano, context));
+            }
+
+            int node = LoggerCallTree.enter(ano);
             try {
                 result = ic.proceed();
 
                 if (result instanceof CompletionStage) {
-                    logger.info("{}", LoggerConfiguration.msgFutureStart(context));
+                    if (!LoggerConfiguration.SINGLE && !deferred && logger.isInfoEnabled()) {
+                        LoggerOutput.info(logger, LoggerConfiguration.msgFutureStart(ano, context));
+                    }
 
                     CompletionStage<?> cs = (CompletionStage<?>) result;
                     cs.toCompletableFuture().whenComplete((u, eex) -> {
                         if (eex != null) {
-                            handleException(context, logger, ano, (Throwable) eex);
+                            handleException(context, logger, ano, sampled, eex);
                         } else {
-                            String contextResult = LoggerConfiguration.RESULT_VOID;
                             if (u != Void.TYPE) {
-                                contextResult = getValue(u);
+                                context.closeContext(() -> getValue(u));
+                            } else {
+                                context.closeContext(LoggerConfiguration.RESULT_VOID);
                             }
-                            context.closeContext(contextResult);
-                            // log the success message
-                            logger.info("{}", LoggerConfiguration.msgSucceed(context));
+                            handleSucceed(context, logger, ano, sampled);
                         }
                     });
                 } else {
-                    String contextResult = LoggerConfiguration.RESULT_VOID;
                     if (method.getReturnType() != Void.TYPE) {
-                        contextResult = getValue(result);
+                        Object value = result;
+                        context.closeContext(() -> getValue(value));
+                    } else {
+                        context.closeContext(LoggerConfiguration.RESULT_VOID);
                     }
-                    context.closeContext(contextResult);
-                    // log the success message
-                    logger.info("{}", LoggerConfiguration.msgSucceed(context));
+                    handleSucceed(context, logger, ano, sampled);
                 }
             } catch (InvocationTargetException ie) {
-                handleException(context, logger, ano, ie.getCause());
+                handleException(context, logger, ano, sampled, ie.getCause());
                 throw ie;
             } catch (Exception ex) {
-                handleException(context, logger, ano, ex);
+                handleException(context, logger, ano, sampled, ex);
                 throw ex;
+            } finally {
+                LoggerCallTree.exit(node);
             }
         } else {
             result = ic.proceed();
@@ -114,146 +130,64 @@ public class LoggerServiceInterceptor {
     }
 
     /**
-     * Handles the exception.
+     * Handles the succeed method execution.
+     * In the slow call mode the start and finish messages are logged only if the threshold is exceeded.
+     * The call suppressed by the sampler is logged only if it exceeds the slow call threshold.
+     * In the single record mode only the finish message is logged.
      *
      * @param context the interceptor context.
      * @param logger  the logger.
-     * @param ano     the annotation.
-     * @param ex      the exception.
+     * @param ano     the logger method.
+     * @param sampled the sampled flag.
      */
-    private void handleException(InterceptorContext context, Logger logger, LoggerService ano, Throwable ex) {
-        context.closeContext(getValue(ex));
-        logger.error("{}", LoggerConfiguration.msgFailed(context));
-        boolean stacktrace = ano.stacktrace();
-        if (stacktrace) {
-            logger.error("Error ", ex);
+    private void handleSucceed(InterceptorContext context, Logger logger, LoggerMethod ano, boolean sampled) {
+        long duration = context.getDuration();
+        LoggerMetrics.stop(LoggerMetrics.service(ano), duration, false);
+        LoggerEvents.commit(context, LoggerEvents.SERVICE, ano.className, ano.methodName, LoggerEvents.SUCCEED, 0);
+        if (LoggerBinarySink.ENABLED) {
+            LoggerBinarySink.write(LoggerBinaryFormat.KIND_SERVICE, ano, context, false, 0);
         }
-    }
-
-    /**
-     * Gets the service class name.
-     *
-     * @param object the target class.
-     * @return the corresponding class name.
-     */
-    private static String getObjectClassName(Object object) {
-        if (object instanceof Proxy) {
-            Class<?>[] clazz = object.getClass().getInterfaces();
-            if (clazz.length > 0) {
-                return getClassName(clazz[0]);
+        boolean deferred = ano.slow() || !sampled;
+        if (deferred && (!ano.slow() || duration < ano.threshold)) {
+            if (!sampled) {
+                ano.sampler.suppressed(duration);
             }
+            return;
         }
-        return getClassName(object.getClass());
-    }
-
-    /**
-     * Gets the service class name.
-     *
-     * @param clazz the target class.
-     * @return the corresponding class name.
-     */
-    private static String getClassName(Class<?> clazz) {
-        if (clazz != null && clazz.getSuperclass() != null) {
-            return clazz.getSuperclass().getName();
-        }
-        if (clazz != null) {
-            return clazz.getName();
+        if (logger.isInfoEnabled()) {
+            if (deferred && !LoggerConfiguration.SINGLE) {
+                LoggerOutput.info(logger, LoggerConfiguration.msgStart(ano, context));
+            }
+            LoggerOutput.info(logger, LoggerConfiguration.msgSucceed(ano, context));
         }
-        return null;
     }
 
     /**
-     * Gets the logger service annotation.
+     * Handles the exception.
      *
-     * @param clazz  the class.
-     * @param method the method.
-     * @return the logger service annotation.
+     * @param context the interceptor context.
+     * @param logger  the logger.
+     * @param ano     the logger method.
+     * @param sampled the sampled flag.
+     * @param ex      the exception.
      */
-    public static LoggerService getLoggerServiceAno(Class<?> clazz, String className, Method method) {
-
-        Config config = ConfigProvider.getConfig();
-        String mc = className + "." + method.getName() + "/jel-log/";
-        String c = className + "/jel-log/";
-
-        Optional<Boolean> log = config.getOptionalValue(mc + "log", Boolean.class);
-        Optional<Boolean> trace = config.getOptionalValue(mc + "trace", Boolean.class);
-        LoggerService anno = method.getAnnotation(LoggerService.class);
-        if (anno != null) {
-            return createLoggerService(log.orElse(anno.log()), trace.orElse(anno.stacktrace()));
+    private void handleException(InterceptorContext context, Logger logger, LoggerMethod ano, boolean sampled, Throwable ex) {
+        LoggerInflight.failed(context.getStartTime(), ex);
+        context.closeContext(() -> getValue(ex));
+        LoggerMetrics.stop(LoggerMetrics.service(ano), context.getDuration(), true);
+        LoggerEvents.commit(context, LoggerEvents.SERVICE, ano.className, ano.methodName, LoggerEvents.FAILED, 0);
+        if (LoggerBinarySink.ENABLED) {
+            LoggerBinarySink.write(LoggerBinaryFormat.KIND_SERVICE, ano, context, true, 0);
         }
-        Optional<Boolean> clog = config.getOptionalValue(c + "log", Boolean.class);
-        Optional<Boolean> ctrace = config.getOptionalValue(c + "trace", Boolean.class);
-        LoggerService canno = clazz.getAnnotation(LoggerService.class);
-        if (canno != null) {
-            return createLoggerService(log.orElse(clog.orElse(canno.log())), trace.orElse(ctrace.orElse(canno.stacktrace())));
+        if ((ano.slow() || !sampled) && !LoggerConfiguration.SINGLE && logger.isInfoEnabled()) {
+            LoggerOutput.info(logger, LoggerConfiguration.msgStart(ano, context));
         }
-        return createLoggerService(log.orElse(clog.orElse(true)), trace.orElse(ctrace.orElse(true)));
-    }
-
-    /**
-     * Creates the logger service.
-     *
-     * @param log        the log flag.
-     * @param stacktrace the stacktrace flag.
-     * @return the corresponding logger service.
-     */
-    private static LoggerService createLoggerService(boolean log, boolean stacktrace) {
-        return new LoggerService() {
-            @Override
-            public boolean log() {
-                return log;
-            }
-
-            @Override
-            public boolean stacktrace() {
-                return stacktrace;
-            }
-
-            @Override
-            public Class<? extends Annotation> annotationType() {
-                return LoggerService.class;
-            }
-        };
-    }
-
-    /**
-     * Gets the list of string corresponding to the list of parameters.
-     *
-     * @param value      the list of parameters.
-     * @param parameters the list of method parameters.
-     * @return the list of string corresponding to the list of parameters.
-     */
-    private String getValuesString(Object[] value, Parameter[] parameters) {
-        if (value != null && value.length > 0) {
-            StringBuilder sb = new StringBuilder();
-            int index = 0;
-            sb.append(getValue(value[index], parameters[index]));
-            index++;
-            for (; index < value.length; index++) {
-                sb.append(',');
-                sb.append(getValue(value[index], parameters[index]));
-            }
-            return sb.toString();
+        if (logger.isErrorEnabled()) {
+            LoggerOutput.error(logger, LoggerConfiguration.msgFailed(ano, context));
         }
-        return "";
-    }
-
-    /**
-     * Get the parameter log value.
-     *
-     * @param value     the parameter value.
-     * @param parameter the method parameter.
-     * @return the corresponding log value.
-     */
-    private String getValue(Object value, Parameter parameter) {
-        LoggerExclude pa = parameter.getAnnotation(LoggerExclude.class);
-        if (pa != null) {
-            if (!pa.mask().isEmpty()) {
-                return pa.mask();
-            }
-            return parameter.getName();
+        if (ano.stacktrace) {
+            LoggerOutput.error(logger, "Error ", ex);
         }
-        return getValue(value);
     }
 
     /**
@@ -263,6 +197,6 @@ public class LoggerServiceInterceptor {
      * @return the string corresponding to the parameter.
      */
     private String getValue(Object parameter) {
-        return loggerBuilderService.getParameterValue(parameter);
+        return LoggerParameters.getValueString(loggerBuilderService, parameter);
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The precompiled log message template.
+ * <p>
+ * The pattern uses the {@link java.text.MessageFormat} syntax for the {@code {0}..{n}}
+ * placeholders and the quotes. The format type and style of the placeholder are ignored
+ * and the argument is rendered with {@link String#valueOf(Object)}.
+ * The template is immutable and thread-safe.
+ *
+ * @author Andrej Petras
+ */
+public final class LoggerTemplate {
+
+    /**
+     * The text segments. The size is the number of the arguments plus one.
+     */
+    private final String[] texts;
+
+    /**
+     * The argument indexes between the text segments.
+     */
+    private final int[] indexes;
+
+    /**
+     * The default constructor.
+     *
+     * @param texts   the text segments.
+     * @param indexes the argument indexes.
+     */
+    private LoggerTemplate(String[] texts, int[] indexes) {
+        this.texts = texts;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Compiles the pattern.
+     *
+     * @param pattern the message pattern.
+     * @return the corresponding template.
+     * @throws IllegalArgumentException if the pattern is not valid.
+     */
+    public static LoggerTemplate compile(String pattern) {
+        List<String> texts = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quote = false;
+        int i = 0;
+        int length = pattern.length();
+        while (i < length) {
+            char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                    sb.append('\'');
+                    i++;
+                } else {
+                    quote = !quote;
+                }
+            } else if (ch == '{' && !quote) {
+                int end = pattern.indexOf('}', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unmatched braces in the pattern " + pattern);
+                }
+                String arg = pattern.substring(i + 1, end);
+                int separator = arg.indexOf(',');
+                if (separator >= 0) {
+                    arg = arg.substring(0, separator);
+                    end = skipFormat(pattern, i);
+                }
+                int index;
+                try {
+                    index = Integer.parseInt(arg.trim());
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Can not parse argument number " + arg + " in the pattern " + pattern, ex);
+                }
+                if (index < 0) {
+                    throw new IllegalArgumentException("Negative argument number " + arg + " in the pattern " + pattern);
+                }
+                indexes.add(index);
+                texts.add(sb.toString());
+                sb.setLength(0);
+                i = end;
+            } else {
+                sb.append(ch);
+            }
+            i++;
+        }
+        texts.add(sb.toString());
+        return new LoggerTemplate(texts.toArray(new String[0]), indexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Skip the nested braces of the format style.
+     *
+     * @param pattern the pattern.
+     * @param start   the index of the opening brace of the argument.
+     * @return the index of the closing brace of the argument.
+     */
+    private static int skipFormat(String pattern, int start) {
+        int depth = 0;
+        for (int i = start; i < pattern.length(); i++) {
+            char ch = pattern.charAt(i);
+            if (ch == '{') {
+                depth++;
+            } else if (ch == '}') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unmatched braces in the pattern " + pattern);
+    }
+
+    /**
+     * Renders the template into the builder.
+     *
+     * @param sb        the target builder.
+     * @param arguments the arguments.
+     * @return the target builder.
+     */
+    public StringBuilder append(StringBuilder sb, Object... arguments) {
+        sb.append(texts[0]);
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexes[i];
+            if (arguments != null && index < arguments.length) {
+                sb.append(arguments[index]);
+            } else {
+                sb.append('{').append(index).append('}');
+            }
+            sb.append(texts[i + 1]);
+        }
+        return sb;
+    }
+
+    /**
+     * Renders the template with the thread local builder.
+     *
+     * @param arguments the arguments.
+     * @return the rendered message.
+     */
+    public String format(Object... arguments) {
+        return LoggerBuffer.release(append(LoggerBuffer.acquire(), arguments));
+    }
+}
@@ -12,7 +12,7 @@ import javax.ws.rs.client.ClientRequestFilter;
 import javax.ws.rs.client.ClientResponseContext;
 import javax.ws.rs.client.ClientResponseFilter;
 import javax.ws.rs.core.Response;
-import java.text.MessageFormat;
+import java.net.URI;
 
 /**
  * The rest client log interceptor
@@ -25,27 +25,51 @@ public class RestClientLogInterceptor implements ClientRequestFilter, ClientResp
     /**
      * The logger for this class.
      */
-    private static final Logger log = LoggerFactory.getLogger(RestClientLogInterceptor.class);
+    private static final Logger log = LoggerEvents.logger(LoggerFactory.getLogger(RestClientLogInterceptor.class));
 
     /**
-     * The context interceptor property.
+     * The call interceptor property.
      */
-    private static final String CONTEXT = "context";
+    private static final String CALL = "jel-log-call";
 
     /**
      * The message start.
      */
-    private MessageFormat messageStart;
+    private static final LoggerTemplate messageStart;
 
     /**
      * The message succeed.
      */
-    private MessageFormat messageSucceed;
+    private static final LoggerTemplate messageSucceed;
 
-    public RestClientLogInterceptor() {
+    /**
+     * The message succeed with the entity bytes.
+     */
+    private static final LoggerTemplate messageEntity;
+
+    /**
+     * The message of the received entity bytes.
+     */
+    private static final LoggerTemplate messageReceived;
+
+    /**
+     * The message captured body.
+     */
+    private static final LoggerTemplate messageBody;
+
+    /**
+     * The message failed without the response.
+     */
+    private static final LoggerTemplate messageFailed;
+
+    static {
         Config config = ConfigProvider.getConfig();
-        messageStart = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.rs.client.start", String.class).orElse("{0} {1} [{2}] started."));
-        messageSucceed = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.rs.client.succeed", String.class).orElse("{0} {1} finished in [{2}s] with [{3}-{4},{5}]."));
+        messageStart = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.client.start", String.class).orElse("{0} {1} [{2}] started."));
+        messageSucceed = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.client.succeed", String.class).orElse("{0} {1} finished in [{2}" + LoggerConfiguration.TIME_UNIT_NAME + "] with [{3}-{4},{5}]."));
+        messageBody = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.client.body.message", String.class).orElse("{0} {1} [{2}] {3} body [{4}]."));
+        messageFailed = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.client.failed", String.class).orElse("{0} {1} failed in [{2}" + LoggerConfiguration.TIME_UNIT_NAME + "] with [{3}]."));
+        messageEntity = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.client.entity.succeed", String.class).orElse("{0} {1} finished in [{2}" + LoggerConfiguration.TIME_UNIT_NAME + "] with [{3}-{4},{5}] [out {6}B,{7}B/s]."));
+        messageReceived = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.client.entity.message", String.class).orElse("{0} {1} [{2}] entity [in {3}B,out {4}B,{5}B/s]."));
     }
 
     /**
@@ -63,9 +87,27 @@ public class RestClientLogInterceptor implements ClientRequestFilter, ClientResp
         if (disable) {
             return;
         }
-        InterceptorContext context = new InterceptorContext(requestContext.getMethod(), requestContext.getUri().toString());
-        requestContext.setProperty(CONTEXT, context);
-        log.info("{}", LoggerConfiguration.msg(messageStart, new Object[]{requestContext.getMethod(), requestContext.getUri(), requestContext.hasEntity()}));
+        URI uri = requestContext.getUri();
+        InterceptorContext context = new InterceptorContext(requestContext.getMethod(), uri.toString());
+        LoggerEntityCounter counter = null;
+        if (LoggerEntityCounter.ENABLED) {
+            counter = new LoggerEntityCounter();
+            requestContext.setProperty(LoggerEntityCounter.PROPERTY, counter);
+        }
+        String key = null;
+        if (LoggerClientStatistics.ENABLED || LoggerBinarySink.ENABLED) {
+            key = LoggerMetrics.host(uri) + ' ' + context.method + ' ' + LoggerResource.client(requestContext.getProperty(LoggerResource.INVOKED_METHOD), uri);
+        }
+        ClientCall call = new ClientCall(context, uri, key, LoggerMetrics.client(uri), counter);
+        requestContext.setProperty(CALL, call);
+        LoggerEvents.begin(context);
+        LoggerMetrics.start(call.series);
+        LoggerInflight.add(call);
+        if (log.isInfoEnabled() && LoggerJson.ENABLED) {
+            LoggerOutput.info(log, LoggerJson.client(LoggerJson.STARTED, context, -1, null, null));
+        } else if (log.isInfoEnabled()) {
+            LoggerOutput.info(log, LoggerConfiguration.msg(messageStart, new Object[]{requestContext.getMethod(), requestContext.getUri(), requestContext.hasEntity()}));
+        }
     }
 
     /**
@@ -76,11 +118,177 @@ public class RestClientLogInterceptor implements ClientRequestFilter, ClientResp
         if (disable) {
             return;
         }
-        InterceptorContext context = (InterceptorContext) requestContext.getProperty(CONTEXT);
-        if (context != null) {
+        ClientCall call = (ClientCall) requestContext.getProperty(CALL);
+        if (call != null && call.complete()) {
+            InterceptorContext context = call.context;
             Response.StatusType status = responseContext.getStatusInfo();
+            boolean failed = LoggerEvents.failed(status.getStatusCode());
             context.closeContext(status.getReasonPhrase());
-            log.info("{}", LoggerConfiguration.msg(messageSucceed, new Object[]{context.method, requestContext.getUri(), context.time, status.getStatusCode(), context.result, responseContext.hasEntity()}));
+            LoggerMetrics.stop(call.series, context.getDuration(), failed);
+            if (LoggerClientStatistics.ENABLED) {
+                LoggerClientStatistics.record(LoggerMetrics.host(call.uri), call.key, context.getDuration(), failed);
+            }
+            if (LoggerEvents.ENABLED) {
+                LoggerEvents.commit(context, LoggerEvents.CLIENT, call.uri.getHost(), context.method + " " + call.uri.getPath(),
+                        LoggerEvents.outcome(status.getStatusCode()), status.getStatusCode());
+            }
+            if (LoggerBinarySink.ENABLED) {
+                LoggerBinarySink.write(LoggerBinaryFormat.KIND_CLIENT, call.key, context, failed, status.getStatusCode());
+            }
+            LoggerEntityCounter counter = call.counter;
+            LoggerEntityCounter count = LoggerEntityCounter.COUNT ? counter : null;
+            if (log.isInfoEnabled() && LoggerJson.ENABLED) {
+                LoggerOutput.info(log, LoggerJson.client(LoggerJson.FINISHED, context, status.getStatusCode(), LoggerEvents.outcome(status.getStatusCode()), count));
+            } else if (log.isInfoEnabled() && count != null) {
+                LoggerOutput.info(log, LoggerConfiguration.msg(messageEntity, new Object[]{context.method, call.uri, context.getTime(), status.getStatusCode(),
+                        context.getResult(), responseContext.hasEntity(), count.getSent(), count.getThroughput()}));
+            } else if (log.isInfoEnabled()) {
+                LoggerOutput.info(log, LoggerConfiguration.msg(messageSucceed, new Object[]{context.method, call.uri, context.getTime(), status.getStatusCode(), context.getResult(), responseContext.hasEntity()}));
+            }
+            if (counter != null) {
+                entity(counter, count == null ? null : call.series, context, status.getStatusCode(), responseContext);
+            }
+        }
+    }
+
+    /**
+     * Records the entity bytes and logs the captured bodies of the failed request.
+     * The response entity is counted and captured when it is read, the response
+     * which is closed without being read releases the counter without the entity record.
+     *
+     * @param counter  the entity counter.
+     * @param series   the metrics or {@code null}.
+     * @param context  the interceptor context.
+     * @param status   the response status.
+     * @param response the response context.
+     */
+    private static void entity(LoggerEntityCounter counter, LoggerMetrics.Series series, InterceptorContext context, int status,
+                               ClientResponseContext response) {
+        LoggerMetrics.entity(series, 0, counter.getSent());
+        boolean capture = LoggerBodyPool.SIZE > 0 && LoggerEvents.failed(status) && log.isInfoEnabled();
+        if (capture) {
+            body(context, status, true, counter.getSentBody());
+        }
+        counter.releaseSent();
+        if (response.hasEntity()) {
+            counter.onComplete(() -> received(counter, series, context, status, capture));
+            response.setEntityStream(counter.closing(response.getEntityStream()));
+        } else {
+            received(counter, series, context, status, capture);
+        }
+    }
+
+    /**
+     * Records the received entity bytes, logs the entity record and the captured body of the failed request
+     * and releases the counter. The method is called after the response entity is read or closed.
+     *
+     * @param counter the entity counter.
+     * @param series  the metrics or {@code null} if the bytes are not counted.
+     * @param context the interceptor context.
+     * @param status  the response status.
+     * @param capture the body capture flag.
+     */
+    private static void received(LoggerEntityCounter counter, LoggerMetrics.Series series, InterceptorContext context, int status, boolean capture) {
+        if (series != null && counter.getReceived() > 0) {
+            LoggerMetrics.entity(series, counter.getReceived(), 0);
+            if (log.isInfoEnabled() && LoggerJson.ENABLED) {
+                LoggerOutput.info(log, LoggerJson.client(LoggerJson.ENTITY, context, status, null, counter));
+            } else if (log.isInfoEnabled()) {
+                LoggerOutput.info(log, LoggerConfiguration.msg(messageReceived, new Object[]{context.method, context.getParameters(), status,
+                        counter.getReceived(), counter.getSent(), counter.getThroughput()}));
+            }
+        }
+        if (capture) {
+            body(context, status, false, counter.getReceivedBody());
+        }
+        counter.release();
+    }
+
+    /**
+     * Logs the captured body record.
+     *
+     * @param context the interceptor context.
+     * @param status  the response status.
+     * @param request the request body flag.
+     * @param body    the captured body or {@code null}.
+     */
+    private static void body(InterceptorContext context, int status, boolean request, String body) {
+        if (body == null) {
+            return;
+        }
+        if (LoggerJson.ENABLED) {
+            LoggerOutput.info(log, LoggerJson.body(LoggerEvents.CLIENT, request ? LoggerJson.REQUEST_BODY : LoggerJson.RESPONSE_BODY, context, status, body));
+        } else {
+            LoggerOutput.info(log, LoggerConfiguration.msg(messageBody, new Object[]{context.method, context.getParameters(), status, request ? "request" : "response", body}));
+        }
+    }
+
+    /**
+     * The running rest client call.
+     */
+    private static final class ClientCall extends LoggerInflight.Call {
+
+        /**
+         * The request URI.
+         */
+        private final URI uri;
+
+        /**
+         * The host, the HTTP method and the path template or {@code null} if not used.
+         */
+        private final String key;
+
+        /**
+         * The metrics or {@code null}.
+         */
+        private final LoggerMetrics.Series series;
+
+        /**
+         * The entity counter or {@code null}.
+         */
+        private final LoggerEntityCounter counter;
+
+        /**
+         * The default constructor.
+         *
+         * @param context the interceptor context.
+         * @param uri     the request URI.
+         * @param key     the host, the HTTP method and the path template.
+         * @param series  the metrics.
+         * @param counter the entity counter.
+         */
+        ClientCall(InterceptorContext context, URI uri, String key, LoggerMetrics.Series series, LoggerEntityCounter counter) {
+            super(context, true);
+            this.uri = uri;
+            this.key = key;
+            this.series = series;
+            this.counter = counter;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        void failed(String reason) {
+            context.closeContext(reason);
+            LoggerMetrics.stop(series, context.getDuration(), true);
+            if (LoggerClientStatistics.ENABLED) {
+                LoggerClientStatistics.record(LoggerMetrics.host(uri), key, context.getDuration(), true);
+            }
+            if (LoggerEvents.ENABLED) {
+                LoggerEvents.commit(context, LoggerEvents.CLIENT, uri.getHost(), context.method + " " + uri.getPath(), LoggerEvents.FAILED, 0);
+            }
+            if (LoggerBinarySink.ENABLED) {
+                LoggerBinarySink.write(LoggerBinaryFormat.KIND_CLIENT, key, context, true, 0);
+            }
+            if (log.isErrorEnabled() && LoggerJson.ENABLED) {
+                LoggerOutput.error(log, LoggerJson.client(LoggerJson.FINISHED, context, 0, LoggerEvents.FAILED, null));
+            } else if (log.isErrorEnabled()) {
+                LoggerOutput.error(log, LoggerConfiguration.msg(messageFailed, new Object[]{context.method, uri, context.getTime(), context.getResult()}));
+            }
+            if (counter != null) {
+                counter.release();
+            }
         }
     }
 }
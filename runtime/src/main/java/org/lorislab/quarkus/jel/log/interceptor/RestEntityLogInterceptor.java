@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 lorislab.org.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.lorislab.quarkus.jel.log.interceptor;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The rest entity log interceptor.
+ * <p>
+ * Counts and captures the bytes of the request and response entities of the server and the client
+ * in the {@link LoggerEntityCounter} created by the {@link RestLogInterceptor} or the {@link RestClientLogInterceptor}.
+ *
+ * @author Andrej Petras
+ */
+@LoggerService(log = false)
+public class RestEntityLogInterceptor implements ReaderInterceptor, WriterInterceptor {
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        Object counter = context.getProperty(LoggerEntityCounter.PROPERTY);
+        if (!(counter instanceof LoggerEntityCounter)) {
+            return context.proceed();
+        }
+        LoggerEntityCounter tmp = (LoggerEntityCounter) counter;
+        InputStream in = context.getInputStream();
+        context.setInputStream(tmp.input(in, charset(context.getMediaType())));
+        long start = System.nanoTime();
+        try {
+            return context.proceed();
+        } finally {
+            tmp.addTime(System.nanoTime() - start);
+            context.setInputStream(in);
+            tmp.complete();
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object counter = context.getProperty(LoggerEntityCounter.PROPERTY);
+        if (!(counter instanceof LoggerEntityCounter)) {
+            context.proceed();
+            return;
+        }
+        LoggerEntityCounter tmp = (LoggerEntityCounter) counter;
+        OutputStream out = context.getOutputStream();
+        context.setOutputStream(tmp.output(out, charset(context.getMediaType())));
+        long start = System.nanoTime();
+        try {
+            context.proceed();
+        } finally {
+            tmp.addTime(System.nanoTime() - start);
+            context.setOutputStream(out);
+            tmp.complete();
+        }
+    }
+
+    /**
+     * Gets the charset of the media type.
+     *
+     * @param mediaType the media type or {@code null}.
+     * @return the charset name or {@code null}.
+     */
+    private static String charset(MediaType mediaType) {
+        return mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+    }
+}
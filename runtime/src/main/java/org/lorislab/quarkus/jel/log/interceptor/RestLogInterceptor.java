@@ -4,13 +4,12 @@ import org.eclipse.microprofile.config.Config;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.ws.rs.container.*;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
-import java.text.MessageFormat;
+import javax.ws.rs.core.UriInfo;
 
 /**
  * The rest log interceptor.
@@ -19,29 +18,53 @@ import java.text.MessageFormat;
 public class RestLogInterceptor implements ContainerRequestFilter, ContainerResponseFilter {
 
     /**
-     * The annotation interceptor property.
+     * The call interceptor property.
      */
-    private static final String ANO = "ano";
+    private static final String CALL = "jel-log-call";
 
     /**
-     * The context interceptor property.
+     * The path template flag. The log records contain the path template of the resource method instead of the request URI.
      */
-    private static final String CONTEXT = "context";
+    private static final boolean PATH = ConfigProvider.getConfig().getOptionalValue("org.lorislab.jel.logger.rs.path", Boolean.class).orElse(false);
 
     /**
      * The message start.
      */
-    private static MessageFormat messageStart;
+    private static final LoggerTemplate messageStart;
 
     /**
      * The message succeed.
      */
-    private static MessageFormat messageSucceed;
+    private static final LoggerTemplate messageSucceed;
+
+    /**
+     * The message of the entity bytes.
+     */
+    private static final LoggerTemplate messageEntity;
+
+    /**
+     * The message captured body.
+     */
+    private static final LoggerTemplate messageBody;
+
+    /**
+     * The message call tree.
+     */
+    private static final LoggerTemplate messageTree;
+
+    /**
+     * The message failed without the response.
+     */
+    private static final LoggerTemplate messageFailed;
 
     static {
         Config config = ConfigProvider.getConfig();
-        messageStart = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.rs.start", String.class).orElse("{0} {1} [{2}] started."));
-        messageSucceed = new MessageFormat(config.getOptionalValue("org.lorislab.jel.logger.rs.succeed", String.class).orElse("{0} {1} [{2}s] finished [{3}-{4},{5}]."));
+        messageStart = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.start", String.class).orElse("{0} {1} [{2}] started."));
+        messageSucceed = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.succeed", String.class).orElse("{0} {1} [{2}" + LoggerConfiguration.TIME_UNIT_NAME + "] finished [{3}-{4},{5}]."));
+        messageEntity = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.entity.message", String.class).orElse("{0} {1} [{2}] entity [in {3}B,out {4}B,{5}B/s]."));
+        messageBody = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.body.message", String.class).orElse("{0} {1} [{2}] {3} body [{4}]."));
+        messageFailed = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.failed", String.class).orElse("{0} {1} [{2}" + LoggerConfiguration.TIME_UNIT_NAME + "] failed [{3}]."));
+        messageTree = LoggerTemplate.compile(config.getOptionalValue("org.lorislab.jel.logger.rs.tree", String.class).orElse("{0} {1} [{2}" + LoggerConfiguration.TIME_UNIT_NAME + "/{3}" + LoggerConfiguration.TIME_UNIT_NAME + "] call tree {4}."));
     }
 
     /**
@@ -65,16 +88,36 @@ public class RestLogInterceptor implements ContainerRequestFilter, ContainerResp
         if (disable) {
             return;
         }
-        LoggerService ano = LoggerServiceInterceptor.getLoggerServiceAno(resourceInfo.getResourceClass(), resourceInfo.getResourceClass().getName(), resourceInfo.getResourceMethod());
-        requestContext.setProperty(ANO, ano);
+        LoggerMethod ano = LoggerMethodTable.resource(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod());
 
-        if (ano.log()) {
-            InterceptorContext context = new InterceptorContext(requestContext.getMethod(), requestContext.getUriInfo().getRequestUri().toString());
-            requestContext.setProperty(CONTEXT, context);
+        if (ano.log) {
+            LoggerResource resource = LoggerResource.get(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod());
+            InterceptorContext context;
+            if (PATH) {
+                context = new InterceptorContext(requestContext.getMethod(), resource.path);
+            } else {
+                UriInfo uriInfo = requestContext.getUriInfo();
+                context = new InterceptorContext(requestContext.getMethod(), () -> uriInfo.getRequestUri().toString());
+            }
+            LoggerEvents.begin(context);
+            LoggerCallTree tree = LoggerCallTree.ENABLED ? LoggerCallTree.start(ano) : null;
+            LoggerEntityCounter counter = null;
+            if (LoggerEntityCounter.ENABLED) {
+                counter = new LoggerEntityCounter();
+                requestContext.setProperty(LoggerEntityCounter.PROPERTY, counter);
+            }
+            ServerCall call = new ServerCall(ano, resource, context, LoggerMetrics.resource(resource), tree, counter);
+            requestContext.setProperty(CALL, call);
+            LoggerMetrics.start(call.series);
+            LoggerInflight.add(call);
 
-            // create the logger
-            Logger logger = LoggerFactory.getLogger(resourceInfo.getResourceClass());
-            logger.info("{}", LoggerConfiguration.msg(messageStart, new Object[]{context.method, requestContext.getUriInfo().getRequestUri(), requestContext.hasEntity()}));
+            Logger logger = LoggerEvents.logger(ano.logger);
+            if (logger.isInfoEnabled() && LoggerJson.ENABLED) {
+                LoggerOutput.info(logger, LoggerJson.rest(LoggerJson.STARTED, ano, resource, context, -1, null, null, null));
+            } else if (logger.isInfoEnabled()) {
+                boolean entity = requestContext.hasEntity();
+                LoggerOutput.info(logger, LoggerConfiguration.msg(messageStart, () -> new Object[]{context.method, context.getParameters(), entity}));
+            }
         }
     }
 
@@ -86,22 +129,218 @@ public class RestLogInterceptor implements ContainerRequestFilter, ContainerResp
         if (disable) {
             return;
         }
-        LoggerService ano = (LoggerService) requestContext.getProperty(ANO);
-        if (ano != null && ano.log()) {
-            InterceptorContext context = (InterceptorContext) requestContext.getProperty(CONTEXT);
+        ServerCall call = (ServerCall) requestContext.getProperty(CALL);
+        if (call != null && call.complete()) {
+            LoggerMethod ano = call.ano;
+            LoggerResource resource = call.resource;
+            InterceptorContext context = call.context;
             Response.StatusType status = responseContext.getStatusInfo();
+            boolean failed = LoggerEvents.failed(status.getStatusCode());
             context.closeContext(status.getReasonPhrase());
-            Logger logger = LoggerFactory.getLogger(resourceInfo.getResourceClass());
-            logger.info("{}", LoggerConfiguration.msg(messageSucceed,
+            LoggerMetrics.stop(call.series, context.getDuration(), failed);
+            LoggerEvents.commit(context, LoggerEvents.REST, ano.className, ano.methodName, LoggerEvents.outcome(status.getStatusCode()), status.getStatusCode());
+            if (LoggerBinarySink.ENABLED) {
+                LoggerBinarySink.write(LoggerBinaryFormat.KIND_REST, ano, context, failed, status.getStatusCode());
+            }
+
+            LoggerCallTree tree = call.tree;
+            if (tree != null) {
+                tree.finish();
+                if (LoggerServerTiming.ENABLED) {
+                    responseContext.getHeaders().add(LoggerServerTiming.HEADER, LoggerServerTiming.header(tree));
+                }
+            }
+            boolean entity = responseContext.hasEntity();
+            finish(ano, resource, context, status, entity, LoggerCallTree.LOG ? tree : null);
+            LoggerEntityCounter counter = call.counter;
+            if (counter != null && entity) {
+                counter.onComplete(() -> entity(ano, resource, context, status, counter));
+            } else if (counter != null) {
+                entity(ano, resource, context, status, counter);
+            }
+        }
+    }
+
+    /**
+     * Logs the finish and the call tree records.
+     *
+     * @param ano      the logger method.
+     * @param resource the resource.
+     * @param context  the closed interceptor context.
+     * @param status   the response status.
+     * @param entity   the response entity flag.
+     * @param tree     the finished call tree or {@code null}.
+     */
+    private static void finish(LoggerMethod ano, LoggerResource resource, InterceptorContext context, Response.StatusType status, boolean entity,
+                               LoggerCallTree tree) {
+        Logger logger = LoggerEvents.logger(ano.logger);
+        if (logger.isInfoEnabled() && LoggerJson.ENABLED) {
+            LoggerOutput.info(logger, LoggerJson.rest(LoggerJson.FINISHED, ano, resource, context, status.getStatusCode(),
+                    LoggerEvents.outcome(status.getStatusCode()), null, null));
+        } else if (logger.isInfoEnabled()) {
+            LoggerOutput.info(logger, LoggerConfiguration.msg(messageSucceed,
                     new Object[]{
                             context.method,
-                            context.parameters,
-                            context.time,
+                            context.getParameters(),
+                            context.getTime(),
                             status.getStatusCode(),
                             status.getReasonPhrase(),
-                            responseContext.hasEntity()
+                            entity
                     }));
         }
+        if (tree != null) {
+            if (logger.isInfoEnabled() && LoggerJson.ENABLED) {
+                LoggerOutput.info(logger, LoggerJson.rest(LoggerJson.TREE, ano, resource, context, status.getStatusCode(), null, tree, null));
+            } else if (logger.isInfoEnabled()) {
+                LoggerOutput.info(logger, LoggerConfiguration.msg(messageTree, () -> new Object[]{
+                        context.method,
+                        context.getParameters(),
+                        LoggerConfiguration.formatTime(tree.getTotal()),
+                        LoggerConfiguration.formatTime(tree.getSelf()),
+                        tree
+                }));
+            }
+        }
     }
 
+    /**
+     * Logs the entity record and the captured bodies. The method is called after the response entity
+     * is written, the response which is never written, the HEAD request or the aborted response,
+     * has the finish record without the entity record. The captured bodies are logged only
+     * for the failed or slow request and the capture buffers are released.
+     *
+     * @param ano      the logger method.
+     * @param resource the resource.
+     * @param context  the closed interceptor context.
+     * @param status   the response status.
+     * @param counter  the entity counter.
+     */
+    private static void entity(LoggerMethod ano, LoggerResource resource, InterceptorContext context, Response.StatusType status,
+                               LoggerEntityCounter counter) {
+        Logger logger = LoggerEvents.logger(ano.logger);
+        if (LoggerEntityCounter.COUNT) {
+            LoggerMetrics.entity(LoggerMetrics.resource(resource), counter.getReceived(), counter.getSent());
+            if (logger.isInfoEnabled() && LoggerJson.ENABLED) {
+                LoggerOutput.info(logger, LoggerJson.rest(LoggerJson.ENTITY, ano, resource, context, status.getStatusCode(), null, null, counter));
+            } else if (logger.isInfoEnabled()) {
+                LoggerOutput.info(logger, LoggerConfiguration.msg(messageEntity,
+                        new Object[]{
+                                context.method,
+                                context.getParameters(),
+                                status.getStatusCode(),
+                                counter.getReceived(),
+                                counter.getSent(),
+                                counter.getThroughput()
+                        }));
+            }
+        }
+        if (LoggerBodyPool.SIZE > 0 && logger.isInfoEnabled()
+                && (LoggerEvents.failed(status.getStatusCode()) || (ano.slow() && context.getDuration() >= ano.threshold))) {
+            body(logger, context, status.getStatusCode(), true, counter.getReceivedBody());
+            body(logger, context, status.getStatusCode(), false, counter.getSentBody());
+        }
+        counter.release();
+    }
+
+    /**
+     * Logs the captured body record.
+     *
+     * @param logger  the logger.
+     * @param context the interceptor context.
+     * @param status  the response status.
+     * @param request the request body flag.
+     * @param body    the captured body or {@code null}.
+     */
+    private static void body(Logger logger, InterceptorContext context, int status, boolean request, String body) {
+        if (body == null) {
+            return;
+        }
+        if (LoggerJson.ENABLED) {
+            LoggerOutput.info(logger, LoggerJson.body(LoggerEvents.REST, request ? LoggerJson.REQUEST_BODY : LoggerJson.RESPONSE_BODY, context, status, body));
+        } else {
+            LoggerOutput.info(logger, LoggerConfiguration.msg(messageBody, new Object[]{context.method, context.getParameters(), status, request ? "request" : "response", body}));
+        }
+    }
+
+    /**
+     * The running rest resource call.
+     */
+    private static final class ServerCall extends LoggerInflight.Call {
+
+        /**
+         * The logger method.
+         */
+        private final LoggerMethod ano;
+
+        /**
+         * The resource.
+         */
+        private final LoggerResource resource;
+
+        /**
+         * The metrics or {@code null}.
+         */
+        private final LoggerMetrics.Series series;
+
+        /**
+         * The call tree or {@code null}.
+         */
+        private final LoggerCallTree tree;
+
+        /**
+         * The call tree holder of the request thread or {@code null}.
+         */
+        private final LoggerCallTree[] holder;
+
+        /**
+         * The entity counter or {@code null}.
+         */
+        private final LoggerEntityCounter counter;
+
+        /**
+         * The default constructor.
+         *
+         * @param ano      the logger method.
+         * @param resource the resource.
+         * @param context  the interceptor context.
+         * @param series   the metrics.
+         * @param tree     the call tree.
+         * @param counter  the entity counter.
+         */
+        ServerCall(LoggerMethod ano, LoggerResource resource, InterceptorContext context, LoggerMetrics.Series series,
+                   LoggerCallTree tree, LoggerEntityCounter counter) {
+            super(context, false);
+            this.ano = ano;
+            this.resource = resource;
+            this.series = series;
+            this.tree = tree;
+            this.holder = tree != null ? LoggerCallTree.current() : null;
+            this.counter = counter;
+        }
+
+        /**
+         * {@inheritDoc }
+         */
+        @Override
+        void failed(String reason) {
+            if (tree != null) {
+                tree.unbind(holder);
+            }
+            context.closeContext(reason);
+            LoggerMetrics.stop(series, context.getDuration(), true);
+            LoggerEvents.commit(context, LoggerEvents.REST, ano.className, ano.methodName, LoggerEvents.FAILED, 0);
+            if (LoggerBinarySink.ENABLED) {
+                LoggerBinarySink.write(LoggerBinaryFormat.KIND_REST, ano, context, true, 0);
+            }
+            Logger logger = LoggerEvents.logger(ano.logger);
+            if (logger.isErrorEnabled() && LoggerJson.ENABLED) {
+                LoggerOutput.error(logger, LoggerJson.rest(LoggerJson.FINISHED, ano, resource, context, 0, LoggerEvents.FAILED, null, null));
+            } else if (logger.isErrorEnabled()) {
+                LoggerOutput.error(logger, LoggerConfiguration.msg(messageFailed, new Object[]{context.method, context.getParameters(), context.getTime(), context.getResult()}));
+            }
+            if (counter != null) {
+                counter.release();
+            }
+        }
+    }
 }